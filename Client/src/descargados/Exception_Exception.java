@@ -6,7 +6,7 @@ import javax.xml.ws.WebFault;
 
 /**
  * This class was generated by the JAX-WS RI.
- * JAX-WS RI 2.2.4-b01
+ * JAX-WS RI 2.2.9-b130926.1035
  * Generated source version: 2.2
  * 
  */
@@ -23,8 +23,8 @@ public class Exception_Exception
 
     /**
      * 
-     * @param message
      * @param faultInfo
+     * @param message
      */
     public Exception_Exception(String message, descargados.Exception faultInfo) {
         super(message);
@@ -33,9 +33,9 @@ public class Exception_Exception
 
     /**
      * 
-     * @param message
      * @param faultInfo
      * @param cause
+     * @param message
      */
     public Exception_Exception(String message, descargados.Exception faultInfo, Throwable cause) {
         super(message, cause);
@@ -15,7 +15,7 @@ import javax.xml.ws.ResponseWrapper;
 
 /**
  * This class was generated by the JAX-WS RI.
- * JAX-WS RI 2.2.4-b01
+ * JAX-WS RI 2.2.9-b130926.1035
  * Generated source version: 2.2
  * 
  */
@@ -50,6 +50,30 @@ public interface InterServer {
     @Action(input = "http://webServices/InterServer/getMensajeRequest", output = "http://webServices/InterServer/getMensajeResponse")
     public String getMensaje();
 
+    /**
+     * 
+     * @param arg3
+     * @param arg2
+     * @param arg1
+     * @param arg0
+     * @return
+     *     returns java.util.List<descargados.Operacion>
+     */
+    @WebMethod
+    @WebResult(targetNamespace = "")
+    @RequestWrapper(localName = "buscarOperaciones", targetNamespace = "http://webServices/", className = "descargados.BuscarOperaciones")
+    @ResponseWrapper(localName = "buscarOperacionesResponse", targetNamespace = "http://webServices/", className = "descargados.BuscarOperacionesResponse")
+    @Action(input = "http://webServices/InterServer/buscarOperacionesRequest", output = "http://webServices/InterServer/buscarOperacionesResponse")
+    public List<Operacion> buscarOperaciones(
+        @WebParam(name = "arg0", targetNamespace = "")
+        String arg0,
+        @WebParam(name = "arg1", targetNamespace = "")
+        boolean arg1,
+        @WebParam(name = "arg2", targetNamespace = "")
+        long arg2,
+        @WebParam(name = "arg3", targetNamespace = "")
+        int arg3);
+
     /**
      * 
      * @return
@@ -62,6 +86,27 @@ public interface InterServer {
     @Action(input = "http://webServices/InterServer/getListaHuellasRequest", output = "http://webServices/InterServer/getListaHuellasResponse")
     public List<String> getListaHuellas();
 
+    /**
+     * 
+     * @param arg2
+     * @param arg1
+     * @param arg0
+     * @return
+     *     returns descargados.PaginaHuellas
+     */
+    @WebMethod
+    @WebResult(targetNamespace = "")
+    @RequestWrapper(localName = "listarHuellas", targetNamespace = "http://webServices/", className = "descargados.ListarHuellas")
+    @ResponseWrapper(localName = "listarHuellasResponse", targetNamespace = "http://webServices/", className = "descargados.ListarHuellasResponse")
+    @Action(input = "http://webServices/InterServer/listarHuellasRequest", output = "http://webServices/InterServer/listarHuellasResponse")
+    public PaginaHuellas listarHuellas(
+        @WebParam(name = "arg0", targetNamespace = "")
+        String arg0,
+        @WebParam(name = "arg1", targetNamespace = "")
+        int arg1,
+        @WebParam(name = "arg2", targetNamespace = "")
+        String arg2);
+
     /**
      * 
      * @param arg1
@@ -69,12 +114,14 @@ public interface InterServer {
      * @return
      *     returns int
      * @throws Exception_Exception
+     * @throws ServidorOcupadoException_Exception
      */
     @WebMethod
     @WebResult(targetNamespace = "")
     @RequestWrapper(localName = "guardarHuella", targetNamespace = "http://webServices/", className = "descargados.GuardarHuella")
     @ResponseWrapper(localName = "guardarHuellaResponse", targetNamespace = "http://webServices/", className = "descargados.GuardarHuellaResponse")
     @Action(input = "http://webServices/InterServer/guardarHuellaRequest", output = "http://webServices/InterServer/guardarHuellaResponse", fault = {
+        @FaultAction(className = ServidorOcupadoException_Exception.class, value = "http://webServices/InterServer/guardarHuella/Fault/ServidorOcupadoException"),
         @FaultAction(className = Exception_Exception.class, value = "http://webServices/InterServer/guardarHuella/Fault/Exception")
     })
     public int guardarHuella(
@@ -82,7 +129,29 @@ public interface InterServer {
         String arg0,
         @WebParam(name = "arg1", targetNamespace = "")
         byte[] arg1)
-        throws Exception_Exception
+        throws Exception_Exception, ServidorOcupadoException_Exception
+    ;
+
+    /**
+     * 
+     * @param arg0
+     * @return
+     *     returns java.util.List<java.lang.Integer>
+     * @throws Exception_Exception
+     * @throws ServidorOcupadoException_Exception
+     */
+    @WebMethod
+    @WebResult(targetNamespace = "")
+    @RequestWrapper(localName = "guardarHuellas", targetNamespace = "http://webServices/", className = "descargados.GuardarHuellas")
+    @ResponseWrapper(localName = "guardarHuellasResponse", targetNamespace = "http://webServices/", className = "descargados.GuardarHuellasResponse")
+    @Action(input = "http://webServices/InterServer/guardarHuellasRequest", output = "http://webServices/InterServer/guardarHuellasResponse", fault = {
+        @FaultAction(className = ServidorOcupadoException_Exception.class, value = "http://webServices/InterServer/guardarHuellas/Fault/ServidorOcupadoException"),
+        @FaultAction(className = Exception_Exception.class, value = "http://webServices/InterServer/guardarHuellas/Fault/Exception")
+    })
+    public List<Integer> guardarHuellas(
+        @WebParam(name = "arg0", targetNamespace = "")
+        List<HuellaNueva> arg0)
+        throws Exception_Exception, ServidorOcupadoException_Exception
     ;
 
     /**
@@ -91,18 +160,114 @@ public interface InterServer {
      * @return
      *     returns java.lang.String
      * @throws Exception_Exception
+     * @throws ServidorOcupadoException_Exception
      */
     @WebMethod
     @WebResult(targetNamespace = "")
     @RequestWrapper(localName = "identificarHuella", targetNamespace = "http://webServices/", className = "descargados.IdentificarHuella")
     @ResponseWrapper(localName = "identificarHuellaResponse", targetNamespace = "http://webServices/", className = "descargados.IdentificarHuellaResponse")
     @Action(input = "http://webServices/InterServer/identificarHuellaRequest", output = "http://webServices/InterServer/identificarHuellaResponse", fault = {
+        @FaultAction(className = ServidorOcupadoException_Exception.class, value = "http://webServices/InterServer/identificarHuella/Fault/ServidorOcupadoException"),
         @FaultAction(className = Exception_Exception.class, value = "http://webServices/InterServer/identificarHuella/Fault/Exception")
     })
     public String identificarHuella(
         @WebParam(name = "arg0", targetNamespace = "")
         byte[] arg0)
-        throws Exception_Exception
+        throws Exception_Exception, ServidorOcupadoException_Exception
+    ;
+
+    /**
+     * 
+     * @param arg1
+     * @param arg0
+     * @return
+     *     returns java.lang.String
+     * @throws Exception_Exception
+     * @throws ServidorOcupadoException_Exception
+     */
+    @WebMethod
+    @WebResult(targetNamespace = "")
+    @RequestWrapper(localName = "identificarHuellaPrimera", targetNamespace = "http://webServices/", className = "descargados.IdentificarHuellaPrimera")
+    @ResponseWrapper(localName = "identificarHuellaPrimeraResponse", targetNamespace = "http://webServices/", className = "descargados.IdentificarHuellaPrimeraResponse")
+    @Action(input = "http://webServices/InterServer/identificarHuellaPrimeraRequest", output = "http://webServices/InterServer/identificarHuellaPrimeraResponse", fault = {
+        @FaultAction(className = ServidorOcupadoException_Exception.class, value = "http://webServices/InterServer/identificarHuellaPrimera/Fault/ServidorOcupadoException"),
+        @FaultAction(className = Exception_Exception.class, value = "http://webServices/InterServer/identificarHuellaPrimera/Fault/Exception")
+    })
+    public String identificarHuellaPrimera(
+        @WebParam(name = "arg0", targetNamespace = "")
+        byte[] arg0,
+        @WebParam(name = "arg1", targetNamespace = "")
+        int arg1)
+        throws Exception_Exception, ServidorOcupadoException_Exception
+    ;
+
+    /**
+     * 
+     * @param arg0
+     * @return
+     *     returns java.util.List<descargados.ResultadoIdentificacion>
+     * @throws Exception_Exception
+     * @throws ServidorOcupadoException_Exception
+     */
+    @WebMethod
+    @WebResult(targetNamespace = "")
+    @RequestWrapper(localName = "identificarHuellas", targetNamespace = "http://webServices/", className = "descargados.IdentificarHuellas")
+    @ResponseWrapper(localName = "identificarHuellasResponse", targetNamespace = "http://webServices/", className = "descargados.IdentificarHuellasResponse")
+    @Action(input = "http://webServices/InterServer/identificarHuellasRequest", output = "http://webServices/InterServer/identificarHuellasResponse", fault = {
+        @FaultAction(className = ServidorOcupadoException_Exception.class, value = "http://webServices/InterServer/identificarHuellas/Fault/ServidorOcupadoException"),
+        @FaultAction(className = Exception_Exception.class, value = "http://webServices/InterServer/identificarHuellas/Fault/Exception")
+    })
+    public List<ResultadoIdentificacion> identificarHuellas(
+        @WebParam(name = "arg0", targetNamespace = "")
+        List<byte[]> arg0)
+        throws Exception_Exception, ServidorOcupadoException_Exception
+    ;
+
+    /**
+     * 
+     * @param arg0
+     * @return
+     *     returns java.util.List<descargados.Candidato>
+     * @throws Exception_Exception
+     * @throws ServidorOcupadoException_Exception
+     */
+    @WebMethod
+    @WebResult(targetNamespace = "")
+    @RequestWrapper(localName = "identificarCandidatos", targetNamespace = "http://webServices/", className = "descargados.IdentificarCandidatos")
+    @ResponseWrapper(localName = "identificarCandidatosResponse", targetNamespace = "http://webServices/", className = "descargados.IdentificarCandidatosResponse")
+    @Action(input = "http://webServices/InterServer/identificarCandidatosRequest", output = "http://webServices/InterServer/identificarCandidatosResponse", fault = {
+        @FaultAction(className = ServidorOcupadoException_Exception.class, value = "http://webServices/InterServer/identificarCandidatos/Fault/ServidorOcupadoException"),
+        @FaultAction(className = Exception_Exception.class, value = "http://webServices/InterServer/identificarCandidatos/Fault/Exception")
+    })
+    public List<Candidato> identificarCandidatos(
+        @WebParam(name = "arg0", targetNamespace = "")
+        byte[] arg0)
+        throws Exception_Exception, ServidorOcupadoException_Exception
+    ;
+
+    /**
+     * 
+     * @param arg1
+     * @param arg0
+     * @return
+     *     returns descargados.ResultadoVerificacion
+     * @throws Exception_Exception
+     * @throws ServidorOcupadoException_Exception
+     */
+    @WebMethod
+    @WebResult(targetNamespace = "")
+    @RequestWrapper(localName = "verificarHuella", targetNamespace = "http://webServices/", className = "descargados.VerificarHuella")
+    @ResponseWrapper(localName = "verificarHuellaResponse", targetNamespace = "http://webServices/", className = "descargados.VerificarHuellaResponse")
+    @Action(input = "http://webServices/InterServer/verificarHuellaRequest", output = "http://webServices/InterServer/verificarHuellaResponse", fault = {
+        @FaultAction(className = ServidorOcupadoException_Exception.class, value = "http://webServices/InterServer/verificarHuella/Fault/ServidorOcupadoException"),
+        @FaultAction(className = Exception_Exception.class, value = "http://webServices/InterServer/verificarHuella/Fault/Exception")
+    })
+    public ResultadoVerificacion verificarHuella(
+        @WebParam(name = "arg0", targetNamespace = "")
+        String arg0,
+        @WebParam(name = "arg1", targetNamespace = "")
+        byte[] arg1)
+        throws Exception_Exception, ServidorOcupadoException_Exception
     ;
 
 }
@@ -13,7 +13,7 @@ import javax.xml.ws.WebServiceFeature;
 
 /**
  * This class was generated by the JAX-WS RI.
- * JAX-WS RI 2.2.4-b01
+ * JAX-WS RI 2.2.9-b130926.1035
  * Generated source version: 2.2
  * 
  */
@@ -24,19 +24,34 @@ import javax.xml.namespace.QName;
 @XmlRegistry
 public class ObjectFactory {
 
-    private final static QName _GuardarHuellaArg1_QNAME = new QName("", "arg1");
-    private final static QName _GetMensajeResponse_QNAME = new QName("http://webServices/", "getMensajeResponse");
-    private final static QName _Exception_QNAME = new QName("http://webServices/", "Exception");
     private final static QName _GetDirectorio_QNAME = new QName("http://webServices/", "getDirectorio");
+    private final static QName _ListarHuellasResponse_QNAME = new QName("http://webServices/", "listarHuellasResponse");
+    private final static QName _GuardarHuella_QNAME = new QName("http://webServices/", "guardarHuella");
+    private final static QName _ServidorOcupadoException_QNAME = new QName("http://webServices/", "ServidorOcupadoException");
+    private final static QName _GetMensajeResponse_QNAME = new QName("http://webServices/", "getMensajeResponse");
+    private final static QName _ListarHuellas_QNAME = new QName("http://webServices/", "listarHuellas");
+    private final static QName _GuardarHuellasResponse_QNAME = new QName("http://webServices/", "guardarHuellasResponse");
     private final static QName _GetMensaje_QNAME = new QName("http://webServices/", "getMensaje");
+    private final static QName _IdentificarHuellaResponse_QNAME = new QName("http://webServices/", "identificarHuellaResponse");
+    private final static QName _GuardarHuellaResponse_QNAME = new QName("http://webServices/", "guardarHuellaResponse");
+    private final static QName _IdentificarCandidatos_QNAME = new QName("http://webServices/", "identificarCandidatos");
+    private final static QName _Exception_QNAME = new QName("http://webServices/", "Exception");
+    private final static QName _IdentificarCandidatosResponse_QNAME = new QName("http://webServices/", "identificarCandidatosResponse");
+    private final static QName _IdentificarHuellas_QNAME = new QName("http://webServices/", "identificarHuellas");
     private final static QName _IdentificarHuella_QNAME = new QName("http://webServices/", "identificarHuella");
-    private final static QName _GetListaHuellas_QNAME = new QName("http://webServices/", "getListaHuellas");
+    private final static QName _VerificarHuellaResponse_QNAME = new QName("http://webServices/", "verificarHuellaResponse");
+    private final static QName _BuscarOperacionesResponse_QNAME = new QName("http://webServices/", "buscarOperacionesResponse");
+    private final static QName _GuardarHuellas_QNAME = new QName("http://webServices/", "guardarHuellas");
+    private final static QName _IdentificarHuellaPrimeraResponse_QNAME = new QName("http://webServices/", "identificarHuellaPrimeraResponse");
+    private final static QName _IdentificarHuellasResponse_QNAME = new QName("http://webServices/", "identificarHuellasResponse");
     private final static QName _GetDirectorioResponse_QNAME = new QName("http://webServices/", "getDirectorioResponse");
-    private final static QName _GuardarHuella_QNAME = new QName("http://webServices/", "guardarHuella");
-    private final static QName _GuardarHuellaResponse_QNAME = new QName("http://webServices/", "guardarHuellaResponse");
+    private final static QName _BuscarOperaciones_QNAME = new QName("http://webServices/", "buscarOperaciones");
+    private final static QName _IdentificarHuellaPrimera_QNAME = new QName("http://webServices/", "identificarHuellaPrimera");
     private final static QName _GetListaHuellasResponse_QNAME = new QName("http://webServices/", "getListaHuellasResponse");
-    private final static QName _IdentificarHuellaResponse_QNAME = new QName("http://webServices/", "identificarHuellaResponse");
-    private final static QName _IdentificarHuellaArg0_QNAME = new QName("", "arg0");
+    private final static QName _GetListaHuellas_QNAME = new QName("http://webServices/", "getListaHuellas");
+    private final static QName _VerificarHuella_QNAME = new QName("http://webServices/", "verificarHuella");
+    private final static QName _VerificarHuellaArg1_QNAME = new QName("", "arg1");
+    private final static QName _IdentificarHuellaPrimeraArg0_QNAME = new QName("", "arg0");
 
     /**
      * Create a new ObjectFactory that can be used to create new instances of schema derived classes for package: descargados
@@ -45,6 +60,30 @@ public class ObjectFactory {
     public ObjectFactory() {
     }
 
+    /**
+     * Create an instance of {@link GetMensajeResponse }
+     * 
+     */
+    public GetMensajeResponse createGetMensajeResponse() {
+        return new GetMensajeResponse();
+    }
+
+    /**
+     * Create an instance of {@link ServidorOcupadoException }
+     * 
+     */
+    public ServidorOcupadoException createServidorOcupadoException() {
+        return new ServidorOcupadoException();
+    }
+
+    /**
+     * Create an instance of {@link GuardarHuella }
+     * 
+     */
+    public GuardarHuella createGuardarHuella() {
+        return new GuardarHuella();
+    }
+
     /**
      * Create an instance of {@link GetDirectorio }
      * 
@@ -54,19 +93,19 @@ public class ObjectFactory {
     }
 
     /**
-     * Create an instance of {@link Exception }
+     * Create an instance of {@link ListarHuellasResponse }
      * 
      */
-    public Exception createException() {
-        return new Exception();
+    public ListarHuellasResponse createListarHuellasResponse() {
+        return new ListarHuellasResponse();
     }
 
     /**
-     * Create an instance of {@link IdentificarHuella }
+     * Create an instance of {@link IdentificarHuellaResponse }
      * 
      */
-    public IdentificarHuella createIdentificarHuella() {
-        return new IdentificarHuella();
+    public IdentificarHuellaResponse createIdentificarHuellaResponse() {
+        return new IdentificarHuellaResponse();
     }
 
     /**
@@ -78,35 +117,83 @@ public class ObjectFactory {
     }
 
     /**
-     * Create an instance of {@link GetMensajeResponse }
+     * Create an instance of {@link GuardarHuellasResponse }
      * 
      */
-    public GetMensajeResponse createGetMensajeResponse() {
-        return new GetMensajeResponse();
+    public GuardarHuellasResponse createGuardarHuellasResponse() {
+        return new GuardarHuellasResponse();
     }
 
     /**
-     * Create an instance of {@link IdentificarHuellaResponse }
+     * Create an instance of {@link ListarHuellas }
      * 
      */
-    public IdentificarHuellaResponse createIdentificarHuellaResponse() {
-        return new IdentificarHuellaResponse();
+    public ListarHuellas createListarHuellas() {
+        return new ListarHuellas();
     }
 
     /**
-     * Create an instance of {@link GetListaHuellasResponse }
+     * Create an instance of {@link GetDirectorioResponse }
      * 
      */
-    public GetListaHuellasResponse createGetListaHuellasResponse() {
-        return new GetListaHuellasResponse();
+    public GetDirectorioResponse createGetDirectorioResponse() {
+        return new GetDirectorioResponse();
     }
 
     /**
-     * Create an instance of {@link GetListaHuellas }
+     * Create an instance of {@link IdentificarHuellaPrimeraResponse }
      * 
      */
-    public GetListaHuellas createGetListaHuellas() {
-        return new GetListaHuellas();
+    public IdentificarHuellaPrimeraResponse createIdentificarHuellaPrimeraResponse() {
+        return new IdentificarHuellaPrimeraResponse();
+    }
+
+    /**
+     * Create an instance of {@link IdentificarHuellasResponse }
+     * 
+     */
+    public IdentificarHuellasResponse createIdentificarHuellasResponse() {
+        return new IdentificarHuellasResponse();
+    }
+
+    /**
+     * Create an instance of {@link VerificarHuellaResponse }
+     * 
+     */
+    public VerificarHuellaResponse createVerificarHuellaResponse() {
+        return new VerificarHuellaResponse();
+    }
+
+    /**
+     * Create an instance of {@link BuscarOperacionesResponse }
+     * 
+     */
+    public BuscarOperacionesResponse createBuscarOperacionesResponse() {
+        return new BuscarOperacionesResponse();
+    }
+
+    /**
+     * Create an instance of {@link GuardarHuellas }
+     * 
+     */
+    public GuardarHuellas createGuardarHuellas() {
+        return new GuardarHuellas();
+    }
+
+    /**
+     * Create an instance of {@link IdentificarHuellas }
+     * 
+     */
+    public IdentificarHuellas createIdentificarHuellas() {
+        return new IdentificarHuellas();
+    }
+
+    /**
+     * Create an instance of {@link IdentificarHuella }
+     * 
+     */
+    public IdentificarHuella createIdentificarHuella() {
+        return new IdentificarHuella();
     }
 
     /**
@@ -118,46 +205,115 @@ public class ObjectFactory {
     }
 
     /**
-     * Create an instance of {@link GuardarHuella }
+     * Create an instance of {@link IdentificarCandidatos }
      * 
      */
-    public GuardarHuella createGuardarHuella() {
-        return new GuardarHuella();
+    public IdentificarCandidatos createIdentificarCandidatos() {
+        return new IdentificarCandidatos();
     }
 
     /**
-     * Create an instance of {@link GetDirectorioResponse }
+     * Create an instance of {@link Exception }
      * 
      */
-    public GetDirectorioResponse createGetDirectorioResponse() {
-        return new GetDirectorioResponse();
+    public Exception createException() {
+        return new Exception();
     }
 
     /**
-     * Create an instance of {@link JAXBElement }{@code <}{@link byte[]}{@code >}}
+     * Create an instance of {@link IdentificarCandidatosResponse }
      * 
      */
-    @XmlElementDecl(namespace = "", name = "arg1", scope = GuardarHuella.class)
-    public JAXBElement<byte[]> createGuardarHuellaArg1(byte[] value) {
-        return new JAXBElement<byte[]>(_GuardarHuellaArg1_QNAME, byte[].class, GuardarHuella.class, ((byte[]) value));
+    public IdentificarCandidatosResponse createIdentificarCandidatosResponse() {
+        return new IdentificarCandidatosResponse();
     }
 
     /**
-     * Create an instance of {@link JAXBElement }{@code <}{@link GetMensajeResponse }{@code >}}
+     * Create an instance of {@link GetListaHuellas }
      * 
      */
-    @XmlElementDecl(namespace = "http://webServices/", name = "getMensajeResponse")
-    public JAXBElement<GetMensajeResponse> createGetMensajeResponse(GetMensajeResponse value) {
-        return new JAXBElement<GetMensajeResponse>(_GetMensajeResponse_QNAME, GetMensajeResponse.class, null, value);
+    public GetListaHuellas createGetListaHuellas() {
+        return new GetListaHuellas();
     }
 
     /**
-     * Create an instance of {@link JAXBElement }{@code <}{@link Exception }{@code >}}
+     * Create an instance of {@link VerificarHuella }
      * 
      */
-    @XmlElementDecl(namespace = "http://webServices/", name = "Exception")
-    public JAXBElement<Exception> createException(Exception value) {
-        return new JAXBElement<Exception>(_Exception_QNAME, Exception.class, null, value);
+    public VerificarHuella createVerificarHuella() {
+        return new VerificarHuella();
+    }
+
+    /**
+     * Create an instance of {@link GetListaHuellasResponse }
+     * 
+     */
+    public GetListaHuellasResponse createGetListaHuellasResponse() {
+        return new GetListaHuellasResponse();
+    }
+
+    /**
+     * Create an instance of {@link IdentificarHuellaPrimera }
+     * 
+     */
+    public IdentificarHuellaPrimera createIdentificarHuellaPrimera() {
+        return new IdentificarHuellaPrimera();
+    }
+
+    /**
+     * Create an instance of {@link BuscarOperaciones }
+     * 
+     */
+    public BuscarOperaciones createBuscarOperaciones() {
+        return new BuscarOperaciones();
+    }
+
+    /**
+     * Create an instance of {@link Operacion }
+     * 
+     */
+    public Operacion createOperacion() {
+        return new Operacion();
+    }
+
+    /**
+     * Create an instance of {@link ResultadoVerificacion }
+     * 
+     */
+    public ResultadoVerificacion createResultadoVerificacion() {
+        return new ResultadoVerificacion();
+    }
+
+    /**
+     * Create an instance of {@link ResultadoIdentificacion }
+     * 
+     */
+    public ResultadoIdentificacion createResultadoIdentificacion() {
+        return new ResultadoIdentificacion();
+    }
+
+    /**
+     * Create an instance of {@link Candidato }
+     * 
+     */
+    public Candidato createCandidato() {
+        return new Candidato();
+    }
+
+    /**
+     * Create an instance of {@link HuellaNueva }
+     * 
+     */
+    public HuellaNueva createHuellaNueva() {
+        return new HuellaNueva();
+    }
+
+    /**
+     * Create an instance of {@link PaginaHuellas }
+     * 
+     */
+    public PaginaHuellas createPaginaHuellas() {
+        return new PaginaHuellas();
     }
 
     /**
@@ -169,6 +325,60 @@ public class ObjectFactory {
         return new JAXBElement<GetDirectorio>(_GetDirectorio_QNAME, GetDirectorio.class, null, value);
     }
 
+    /**
+     * Create an instance of {@link JAXBElement }{@code <}{@link ListarHuellasResponse }{@code >}}
+     * 
+     */
+    @XmlElementDecl(namespace = "http://webServices/", name = "listarHuellasResponse")
+    public JAXBElement<ListarHuellasResponse> createListarHuellasResponse(ListarHuellasResponse value) {
+        return new JAXBElement<ListarHuellasResponse>(_ListarHuellasResponse_QNAME, ListarHuellasResponse.class, null, value);
+    }
+
+    /**
+     * Create an instance of {@link JAXBElement }{@code <}{@link GuardarHuella }{@code >}}
+     * 
+     */
+    @XmlElementDecl(namespace = "http://webServices/", name = "guardarHuella")
+    public JAXBElement<GuardarHuella> createGuardarHuella(GuardarHuella value) {
+        return new JAXBElement<GuardarHuella>(_GuardarHuella_QNAME, GuardarHuella.class, null, value);
+    }
+
+    /**
+     * Create an instance of {@link JAXBElement }{@code <}{@link ServidorOcupadoException }{@code >}}
+     * 
+     */
+    @XmlElementDecl(namespace = "http://webServices/", name = "ServidorOcupadoException")
+    public JAXBElement<ServidorOcupadoException> createServidorOcupadoException(ServidorOcupadoException value) {
+        return new JAXBElement<ServidorOcupadoException>(_ServidorOcupadoException_QNAME, ServidorOcupadoException.class, null, value);
+    }
+
+    /**
+     * Create an instance of {@link JAXBElement }{@code <}{@link GetMensajeResponse }{@code >}}
+     * 
+     */
+    @XmlElementDecl(namespace = "http://webServices/", name = "getMensajeResponse")
+    public JAXBElement<GetMensajeResponse> createGetMensajeResponse(GetMensajeResponse value) {
+        return new JAXBElement<GetMensajeResponse>(_GetMensajeResponse_QNAME, GetMensajeResponse.class, null, value);
+    }
+
+    /**
+     * Create an instance of {@link JAXBElement }{@code <}{@link ListarHuellas }{@code >}}
+     * 
+     */
+    @XmlElementDecl(namespace = "http://webServices/", name = "listarHuellas")
+    public JAXBElement<ListarHuellas> createListarHuellas(ListarHuellas value) {
+        return new JAXBElement<ListarHuellas>(_ListarHuellas_QNAME, ListarHuellas.class, null, value);
+    }
+
+    /**
+     * Create an instance of {@link JAXBElement }{@code <}{@link GuardarHuellasResponse }{@code >}}
+     * 
+     */
+    @XmlElementDecl(namespace = "http://webServices/", name = "guardarHuellasResponse")
+    public JAXBElement<GuardarHuellasResponse> createGuardarHuellasResponse(GuardarHuellasResponse value) {
+        return new JAXBElement<GuardarHuellasResponse>(_GuardarHuellasResponse_QNAME, GuardarHuellasResponse.class, null, value);
+    }
+
     /**
      * Create an instance of {@link JAXBElement }{@code <}{@link GetMensaje }{@code >}}
      * 
@@ -178,6 +388,60 @@ public class ObjectFactory {
         return new JAXBElement<GetMensaje>(_GetMensaje_QNAME, GetMensaje.class, null, value);
     }
 
+    /**
+     * Create an instance of {@link JAXBElement }{@code <}{@link IdentificarHuellaResponse }{@code >}}
+     * 
+     */
+    @XmlElementDecl(namespace = "http://webServices/", name = "identificarHuellaResponse")
+    public JAXBElement<IdentificarHuellaResponse> createIdentificarHuellaResponse(IdentificarHuellaResponse value) {
+        return new JAXBElement<IdentificarHuellaResponse>(_IdentificarHuellaResponse_QNAME, IdentificarHuellaResponse.class, null, value);
+    }
+
+    /**
+     * Create an instance of {@link JAXBElement }{@code <}{@link GuardarHuellaResponse }{@code >}}
+     * 
+     */
+    @XmlElementDecl(namespace = "http://webServices/", name = "guardarHuellaResponse")
+    public JAXBElement<GuardarHuellaResponse> createGuardarHuellaResponse(GuardarHuellaResponse value) {
+        return new JAXBElement<GuardarHuellaResponse>(_GuardarHuellaResponse_QNAME, GuardarHuellaResponse.class, null, value);
+    }
+
+    /**
+     * Create an instance of {@link JAXBElement }{@code <}{@link IdentificarCandidatos }{@code >}}
+     * 
+     */
+    @XmlElementDecl(namespace = "http://webServices/", name = "identificarCandidatos")
+    public JAXBElement<IdentificarCandidatos> createIdentificarCandidatos(IdentificarCandidatos value) {
+        return new JAXBElement<IdentificarCandidatos>(_IdentificarCandidatos_QNAME, IdentificarCandidatos.class, null, value);
+    }
+
+    /**
+     * Create an instance of {@link JAXBElement }{@code <}{@link Exception }{@code >}}
+     * 
+     */
+    @XmlElementDecl(namespace = "http://webServices/", name = "Exception")
+    public JAXBElement<Exception> createException(Exception value) {
+        return new JAXBElement<Exception>(_Exception_QNAME, Exception.class, null, value);
+    }
+
+    /**
+     * Create an instance of {@link JAXBElement }{@code <}{@link IdentificarCandidatosResponse }{@code >}}
+     * 
+     */
+    @XmlElementDecl(namespace = "http://webServices/", name = "identificarCandidatosResponse")
+    public JAXBElement<IdentificarCandidatosResponse> createIdentificarCandidatosResponse(IdentificarCandidatosResponse value) {
+        return new JAXBElement<IdentificarCandidatosResponse>(_IdentificarCandidatosResponse_QNAME, IdentificarCandidatosResponse.class, null, value);
+    }
+
+    /**
+     * Create an instance of {@link JAXBElement }{@code <}{@link IdentificarHuellas }{@code >}}
+     * 
+     */
+    @XmlElementDecl(namespace = "http://webServices/", name = "identificarHuellas")
+    public JAXBElement<IdentificarHuellas> createIdentificarHuellas(IdentificarHuellas value) {
+        return new JAXBElement<IdentificarHuellas>(_IdentificarHuellas_QNAME, IdentificarHuellas.class, null, value);
+    }
+
     /**
      * Create an instance of {@link JAXBElement }{@code <}{@link IdentificarHuella }{@code >}}
      * 
@@ -188,12 +452,48 @@ public class ObjectFactory {
     }
 
     /**
-     * Create an instance of {@link JAXBElement }{@code <}{@link GetListaHuellas }{@code >}}
+     * Create an instance of {@link JAXBElement }{@code <}{@link VerificarHuellaResponse }{@code >}}
      * 
      */
-    @XmlElementDecl(namespace = "http://webServices/", name = "getListaHuellas")
-    public JAXBElement<GetListaHuellas> createGetListaHuellas(GetListaHuellas value) {
-        return new JAXBElement<GetListaHuellas>(_GetListaHuellas_QNAME, GetListaHuellas.class, null, value);
+    @XmlElementDecl(namespace = "http://webServices/", name = "verificarHuellaResponse")
+    public JAXBElement<VerificarHuellaResponse> createVerificarHuellaResponse(VerificarHuellaResponse value) {
+        return new JAXBElement<VerificarHuellaResponse>(_VerificarHuellaResponse_QNAME, VerificarHuellaResponse.class, null, value);
+    }
+
+    /**
+     * Create an instance of {@link JAXBElement }{@code <}{@link BuscarOperacionesResponse }{@code >}}
+     * 
+     */
+    @XmlElementDecl(namespace = "http://webServices/", name = "buscarOperacionesResponse")
+    public JAXBElement<BuscarOperacionesResponse> createBuscarOperacionesResponse(BuscarOperacionesResponse value) {
+        return new JAXBElement<BuscarOperacionesResponse>(_BuscarOperacionesResponse_QNAME, BuscarOperacionesResponse.class, null, value);
+    }
+
+    /**
+     * Create an instance of {@link JAXBElement }{@code <}{@link GuardarHuellas }{@code >}}
+     * 
+     */
+    @XmlElementDecl(namespace = "http://webServices/", name = "guardarHuellas")
+    public JAXBElement<GuardarHuellas> createGuardarHuellas(GuardarHuellas value) {
+        return new JAXBElement<GuardarHuellas>(_GuardarHuellas_QNAME, GuardarHuellas.class, null, value);
+    }
+
+    /**
+     * Create an instance of {@link JAXBElement }{@code <}{@link IdentificarHuellaPrimeraResponse }{@code >}}
+     * 
+     */
+    @XmlElementDecl(namespace = "http://webServices/", name = "identificarHuellaPrimeraResponse")
+    public JAXBElement<IdentificarHuellaPrimeraResponse> createIdentificarHuellaPrimeraResponse(IdentificarHuellaPrimeraResponse value) {
+        return new JAXBElement<IdentificarHuellaPrimeraResponse>(_IdentificarHuellaPrimeraResponse_QNAME, IdentificarHuellaPrimeraResponse.class, null, value);
+    }
+
+    /**
+     * Create an instance of {@link JAXBElement }{@code <}{@link IdentificarHuellasResponse }{@code >}}
+     * 
+     */
+    @XmlElementDecl(namespace = "http://webServices/", name = "identificarHuellasResponse")
+    public JAXBElement<IdentificarHuellasResponse> createIdentificarHuellasResponse(IdentificarHuellasResponse value) {
+        return new JAXBElement<IdentificarHuellasResponse>(_IdentificarHuellasResponse_QNAME, IdentificarHuellasResponse.class, null, value);
     }
 
     /**
@@ -206,21 +506,21 @@ public class ObjectFactory {
     }
 
     /**
-     * Create an instance of {@link JAXBElement }{@code <}{@link GuardarHuella }{@code >}}
+     * Create an instance of {@link JAXBElement }{@code <}{@link BuscarOperaciones }{@code >}}
      * 
      */
-    @XmlElementDecl(namespace = "http://webServices/", name = "guardarHuella")
-    public JAXBElement<GuardarHuella> createGuardarHuella(GuardarHuella value) {
-        return new JAXBElement<GuardarHuella>(_GuardarHuella_QNAME, GuardarHuella.class, null, value);
+    @XmlElementDecl(namespace = "http://webServices/", name = "buscarOperaciones")
+    public JAXBElement<BuscarOperaciones> createBuscarOperaciones(BuscarOperaciones value) {
+        return new JAXBElement<BuscarOperaciones>(_BuscarOperaciones_QNAME, BuscarOperaciones.class, null, value);
     }
 
     /**
-     * Create an instance of {@link JAXBElement }{@code <}{@link GuardarHuellaResponse }{@code >}}
+     * Create an instance of {@link JAXBElement }{@code <}{@link IdentificarHuellaPrimera }{@code >}}
      * 
      */
-    @XmlElementDecl(namespace = "http://webServices/", name = "guardarHuellaResponse")
-    public JAXBElement<GuardarHuellaResponse> createGuardarHuellaResponse(GuardarHuellaResponse value) {
-        return new JAXBElement<GuardarHuellaResponse>(_GuardarHuellaResponse_QNAME, GuardarHuellaResponse.class, null, value);
+    @XmlElementDecl(namespace = "http://webServices/", name = "identificarHuellaPrimera")
+    public JAXBElement<IdentificarHuellaPrimera> createIdentificarHuellaPrimera(IdentificarHuellaPrimera value) {
+        return new JAXBElement<IdentificarHuellaPrimera>(_IdentificarHuellaPrimera_QNAME, IdentificarHuellaPrimera.class, null, value);
     }
 
     /**
@@ -233,12 +533,39 @@ public class ObjectFactory {
     }
 
     /**
-     * Create an instance of {@link JAXBElement }{@code <}{@link IdentificarHuellaResponse }{@code >}}
+     * Create an instance of {@link JAXBElement }{@code <}{@link GetListaHuellas }{@code >}}
      * 
      */
-    @XmlElementDecl(namespace = "http://webServices/", name = "identificarHuellaResponse")
-    public JAXBElement<IdentificarHuellaResponse> createIdentificarHuellaResponse(IdentificarHuellaResponse value) {
-        return new JAXBElement<IdentificarHuellaResponse>(_IdentificarHuellaResponse_QNAME, IdentificarHuellaResponse.class, null, value);
+    @XmlElementDecl(namespace = "http://webServices/", name = "getListaHuellas")
+    public JAXBElement<GetListaHuellas> createGetListaHuellas(GetListaHuellas value) {
+        return new JAXBElement<GetListaHuellas>(_GetListaHuellas_QNAME, GetListaHuellas.class, null, value);
+    }
+
+    /**
+     * Create an instance of {@link JAXBElement }{@code <}{@link VerificarHuella }{@code >}}
+     * 
+     */
+    @XmlElementDecl(namespace = "http://webServices/", name = "verificarHuella")
+    public JAXBElement<VerificarHuella> createVerificarHuella(VerificarHuella value) {
+        return new JAXBElement<VerificarHuella>(_VerificarHuella_QNAME, VerificarHuella.class, null, value);
+    }
+
+    /**
+     * Create an instance of {@link JAXBElement }{@code <}{@link byte[]}{@code >}}
+     * 
+     */
+    @XmlElementDecl(namespace = "", name = "arg1", scope = VerificarHuella.class)
+    public JAXBElement<byte[]> createVerificarHuellaArg1(byte[] value) {
+        return new JAXBElement<byte[]>(_VerificarHuellaArg1_QNAME, byte[].class, VerificarHuella.class, ((byte[]) value));
+    }
+
+    /**
+     * Create an instance of {@link JAXBElement }{@code <}{@link byte[]}{@code >}}
+     * 
+     */
+    @XmlElementDecl(namespace = "", name = "arg0", scope = IdentificarHuellaPrimera.class)
+    public JAXBElement<byte[]> createIdentificarHuellaPrimeraArg0(byte[] value) {
+        return new JAXBElement<byte[]>(_IdentificarHuellaPrimeraArg0_QNAME, byte[].class, IdentificarHuellaPrimera.class, ((byte[]) value));
     }
 
     /**
@@ -247,7 +574,25 @@ public class ObjectFactory {
      */
     @XmlElementDecl(namespace = "", name = "arg0", scope = IdentificarHuella.class)
     public JAXBElement<byte[]> createIdentificarHuellaArg0(byte[] value) {
-        return new JAXBElement<byte[]>(_IdentificarHuellaArg0_QNAME, byte[].class, IdentificarHuella.class, ((byte[]) value));
+        return new JAXBElement<byte[]>(_IdentificarHuellaPrimeraArg0_QNAME, byte[].class, IdentificarHuella.class, ((byte[]) value));
+    }
+
+    /**
+     * Create an instance of {@link JAXBElement }{@code <}{@link byte[]}{@code >}}
+     * 
+     */
+    @XmlElementDecl(namespace = "", name = "arg1", scope = GuardarHuella.class)
+    public JAXBElement<byte[]> createGuardarHuellaArg1(byte[] value) {
+        return new JAXBElement<byte[]>(_VerificarHuellaArg1_QNAME, byte[].class, GuardarHuella.class, ((byte[]) value));
+    }
+
+    /**
+     * Create an instance of {@link JAXBElement }{@code <}{@link byte[]}{@code >}}
+     * 
+     */
+    @XmlElementDecl(namespace = "", name = "arg0", scope = IdentificarCandidatos.class)
+    public JAXBElement<byte[]> createIdentificarCandidatosArg0(byte[] value) {
+        return new JAXBElement<byte[]>(_IdentificarHuellaPrimeraArg0_QNAME, byte[].class, IdentificarCandidatos.class, ((byte[]) value));
     }
 
 }
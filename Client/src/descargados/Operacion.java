@@ -0,0 +1,163 @@
+
+package descargados;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlType;
+
+
+/**
+ * <p>Java class for operacion complex type.
+ * 
+ * <p>The following schema fragment specifies the expected content contained within this class.
+ * 
+ * <pre>
+ * &lt;complexType name="operacion">
+ *   &lt;complexContent>
+ *     &lt;restriction base="{http://www.w3.org/2001/XMLSchema}anyType">
+ *       &lt;sequence>
+ *         &lt;element name="duracion" type="{http://www.w3.org/2001/XMLSchema}long"/>
+ *         &lt;element name="error" type="{http://www.w3.org/2001/XMLSchema}boolean"/>
+ *         &lt;element name="fecha" type="{http://www.w3.org/2001/XMLSchema}long"/>
+ *         &lt;element name="mensaje" type="{http://www.w3.org/2001/XMLSchema}string" minOccurs="0"/>
+ *         &lt;element name="nombre" type="{http://www.w3.org/2001/XMLSchema}string" minOccurs="0"/>
+ *         &lt;element name="numero" type="{http://www.w3.org/2001/XMLSchema}long"/>
+ *       &lt;/sequence>
+ *     &lt;/restriction>
+ *   &lt;/complexContent>
+ * &lt;/complexType>
+ * </pre>
+ * 
+ * 
+ */
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "operacion", propOrder = {
+    "duracion",
+    "error",
+    "fecha",
+    "mensaje",
+    "nombre",
+    "numero"
+})
+public class Operacion {
+
+    protected long duracion;
+    protected boolean error;
+    protected long fecha;
+    protected String mensaje;
+    protected String nombre;
+    protected long numero;
+
+    /**
+     * Gets the value of the duracion property.
+     * 
+     */
+    public long getDuracion() {
+        return duracion;
+    }
+
+    /**
+     * Sets the value of the duracion property.
+     * 
+     */
+    public void setDuracion(long value) {
+        this.duracion = value;
+    }
+
+    /**
+     * Gets the value of the error property.
+     * 
+     */
+    public boolean isError() {
+        return error;
+    }
+
+    /**
+     * Sets the value of the error property.
+     * 
+     */
+    public void setError(boolean value) {
+        this.error = value;
+    }
+
+    /**
+     * Gets the value of the fecha property.
+     * 
+     */
+    public long getFecha() {
+        return fecha;
+    }
+
+    /**
+     * Sets the value of the fecha property.
+     * 
+     */
+    public void setFecha(long value) {
+        this.fecha = value;
+    }
+
+    /**
+     * Gets the value of the mensaje property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link String }
+     *     
+     */
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    /**
+     * Sets the value of the mensaje property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link String }
+     *     
+     */
+    public void setMensaje(String value) {
+        this.mensaje = value;
+    }
+
+    /**
+     * Gets the value of the nombre property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link String }
+     *     
+     */
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Sets the value of the nombre property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link String }
+     *     
+     */
+    public void setNombre(String value) {
+        this.nombre = value;
+    }
+
+    /**
+     * Gets the value of the numero property.
+     * 
+     */
+    public long getNumero() {
+        return numero;
+    }
+
+    /**
+     * Sets the value of the numero property.
+     * 
+     */
+    public void setNumero(long value) {
+        this.numero = value;
+    }
+
+}
@@ -0,0 +1,98 @@
+
+package descargados;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlType;
+
+
+/**
+ * <p>Java class for resultadoVerificacion complex type.
+ * 
+ * <p>The following schema fragment specifies the expected content contained within this class.
+ * 
+ * <pre>
+ * &lt;complexType name="resultadoVerificacion">
+ *   &lt;complexContent>
+ *     &lt;restriction base="{http://www.w3.org/2001/XMLSchema}anyType">
+ *       &lt;sequence>
+ *         &lt;element name="coincide" type="{http://www.w3.org/2001/XMLSchema}boolean"/>
+ *         &lt;element name="nombre" type="{http://www.w3.org/2001/XMLSchema}string" minOccurs="0"/>
+ *         &lt;element name="puntaje" type="{http://www.w3.org/2001/XMLSchema}int"/>
+ *       &lt;/sequence>
+ *     &lt;/restriction>
+ *   &lt;/complexContent>
+ * &lt;/complexType>
+ * </pre>
+ * 
+ * 
+ */
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "resultadoVerificacion", propOrder = {
+    "coincide",
+    "nombre",
+    "puntaje"
+})
+public class ResultadoVerificacion {
+
+    protected boolean coincide;
+    protected String nombre;
+    protected int puntaje;
+
+    /**
+     * Gets the value of the coincide property.
+     * 
+     */
+    public boolean isCoincide() {
+        return coincide;
+    }
+
+    /**
+     * Sets the value of the coincide property.
+     * 
+     */
+    public void setCoincide(boolean value) {
+        this.coincide = value;
+    }
+
+    /**
+     * Gets the value of the nombre property.
+     * 
+     * @return
+     *     possible object is
+     *     {@link String }
+     *     
+     */
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Sets the value of the nombre property.
+     * 
+     * @param value
+     *     allowed object is
+     *     {@link String }
+     *     
+     */
+    public void setNombre(String value) {
+        this.nombre = value;
+    }
+
+    /**
+     * Gets the value of the puntaje property.
+     * 
+     */
+    public int getPuntaje() {
+        return puntaje;
+    }
+
+    /**
+     * Sets the value of the puntaje property.
+     * 
+     */
+    public void setPuntaje(int value) {
+        this.puntaje = value;
+    }
+
+}
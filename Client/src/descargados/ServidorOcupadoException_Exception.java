@@ -0,0 +1,54 @@
+
+package descargados;
+
+import javax.xml.ws.WebFault;
+
+
+/**
+ * This class was generated by the JAX-WS RI.
+ * JAX-WS RI 2.2.9-b130926.1035
+ * Generated source version: 2.2
+ * 
+ */
+@WebFault(name = "ServidorOcupadoException", targetNamespace = "http://webServices/")
+public class ServidorOcupadoException_Exception
+    extends java.lang.Exception
+{
+
+    /**
+     * Java type that goes as soapenv:Fault detail element.
+     * 
+     */
+    private ServidorOcupadoException faultInfo;
+
+    /**
+     * 
+     * @param faultInfo
+     * @param message
+     */
+    public ServidorOcupadoException_Exception(String message, ServidorOcupadoException faultInfo) {
+        super(message);
+        this.faultInfo = faultInfo;
+    }
+
+    /**
+     * 
+     * @param faultInfo
+     * @param cause
+     * @param message
+     */
+    public ServidorOcupadoException_Exception(String message, ServidorOcupadoException faultInfo, Throwable cause) {
+        super(message, cause);
+        this.faultInfo = faultInfo;
+    }
+
+    /**
+     * 
+     * @return
+     *     returns fault bean: descargados.ServidorOcupadoException
+     */
+    public ServidorOcupadoException getFaultInfo() {
+        return faultInfo;
+    }
+
+}
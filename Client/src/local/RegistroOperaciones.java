@@ -0,0 +1,76 @@
+package local;
+
+import java.util.ArrayList;
+
+
+/** Historial acotado de las operaciones terminadas. Es un anillo de capacidad fija:
+ *  al llenarse cada operacion nueva reemplaza a la mas antigua, la memoria no crece
+ *  y registrar no copia el historial */
+public class RegistroOperaciones {
+
+	private Operacion[] anillo;		/** La operacion numero 'n' esta en la posicion (n - 1) % capacidad */
+	private long registradas;		/** Numero de la ultima operacion registrada */
+
+
+	public RegistroOperaciones(int capacidad) {
+		anillo = new Operacion[Math.max(1, capacidad)];
+	}
+
+	public int getCapacidad() {
+		return anillo.length;
+	}
+
+	/** Numero de la ultima operacion registrada, 0 si no hay ninguna */
+	public synchronized long getRegistradas() {
+		return registradas;
+	}
+
+
+	public synchronized Operacion registrar(String nombre, String mensaje, long duracion, boolean error) {
+		registradas++;
+		Operacion operacion = new Operacion(registradas, System.currentTimeMillis(), nombre, mensaje,
+				duracion, error);
+		anillo[(int) ((registradas - 1) % anillo.length)] = operacion;
+		return operacion;
+	}
+
+	public Operacion registrar(String nombre, String mensaje) {
+		return registrar(nombre, mensaje, 0, false);
+	}
+
+	/** Ultima operacion registrada, null si no hay ninguna */
+	public synchronized Operacion getUltima() {
+		return registradas == 0 ? null : anillo[(int) ((registradas - 1) % anillo.length)];
+	}
+
+
+	/** Hasta 'cantidad' operaciones con numero mayor a 'desde', de la mas antigua a la
+	 *  mas reciente. 'nombre' null incluye todas las operaciones; con 'soloErrores'
+	 *  solo las que fallaron. Las operaciones que ya salieron del anillo no se incluyen */
+	public synchronized ArrayList<Operacion> buscar(String nombre, boolean soloErrores, long desde, int cantidad) {
+		ArrayList<Operacion> encontradas = new ArrayList<Operacion>();
+		long primera = Math.max(desde + 1, registradas - anillo.length + 1);
+		for (long n = Math.max(1, primera); n <= registradas && encontradas.size() < cantidad; n++) {
+			Operacion operacion = anillo[(int) ((n - 1) % anillo.length)];
+			if ((nombre == null || nombre.equals(operacion.getNombre()))
+					&& (!soloErrores || operacion.isError())) {
+				encontradas.add(operacion);
+			}
+		}
+		return encontradas;
+	}
+
+	/** Las ultimas 'cantidad' operaciones, de la mas antigua a la mas reciente */
+	public synchronized ArrayList<Operacion> ultimas(int cantidad) {
+		return buscar(null, false, Math.max(0, registradas - cantidad), cantidad);
+	}
+
+	/** Texto de las ultimas 'cantidad' operaciones, una por linea */
+	public String getTexto(int cantidad) {
+		StringBuilder texto = new StringBuilder();
+		for (Operacion operacion : ultimas(cantidad)) {
+			texto.append("\n").append(operacion.getMensaje());
+		}
+		return texto.toString();
+	}
+}
@@ -0,0 +1,269 @@
+package webServices;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/** Cliente del protocolo binario del servidor (ServidorBinario), sin SOAP ni WSDL.
+ *  Una sola conexion atiende a todos los hilos: cada peticion se envia enseguida y un
+ *  hilo lector entrega cada respuesta a quien la espera segun su id, asi se pueden
+ *  enviar varias peticiones sin esperar las anteriores.
+ *  Los metodos enviar...() retornan sin esperar; los demas esperan la respuesta */
+public class ClienteBinario {
+
+	/** Mismos codigos que ServidorBinario */
+	private static final byte IDENTIFICAR = 1;
+	private static final byte VERIFICAR = 2;
+	private static final byte GUARDAR = 3;
+
+	private static final byte OK = 0;
+	private static final byte OCUPADO = 2;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private Socket socket;
+	private DataOutputStream salida;		/** Se escribe con su propio bloqueo */
+	private DataInputStream entrada;		/** Solo la lee el hilo lector */
+	private AtomicInteger siguienteId;		/** Id de la proxima peticion */
+	private ConcurrentHashMap<Integer, Pendiente<?>> pendientes;	/** Peticiones enviadas sin respuesta */
+	private volatile IOException falla;	/** Motivo por el que se perdio la conexion */
+
+
+	/** Resultado de verificar(): si la huella coincide y con que puntaje */
+	public static class Verificacion {
+		private boolean coincide;
+		private int puntaje;
+
+		Verificacion(boolean coincide, int puntaje) {
+			this.coincide = coincide;
+			this.puntaje = puntaje;
+		}
+
+		public boolean isCoincide() {
+			return coincide;
+		}
+
+		public int getPuntaje() {
+			return puntaje;
+		}
+	}
+
+	/** Respuesta que aun no llega. 'leer' interpreta el cuerpo de una respuesta OK */
+	private abstract static class Pendiente<T> implements Future<T> {
+		private CountDownLatch lista = new CountDownLatch(1);
+		private T valor;
+		private Exception error;
+
+		abstract T leer(ByteBuffer cuerpo);
+
+		void completar(byte estado, ByteBuffer cuerpo) {
+			if (estado == OK) {
+				valor = leer(cuerpo);
+			}
+			else {
+				String texto = new String(cuerpo.array(), cuerpo.position(), cuerpo.remaining(), UTF8);
+				error = new Exception(estado == OCUPADO ? "Servidor ocupado: " + texto : texto);
+			}
+			lista.countDown();
+		}
+
+		void fallar(Exception e) {
+			error = e;
+			lista.countDown();
+		}
+
+		public T get() throws InterruptedException, ExecutionException {
+			lista.await();
+			return resultado();
+		}
+
+		public T get(long tiempo, TimeUnit unidad) throws InterruptedException, ExecutionException,
+				TimeoutException {
+			if (!lista.await(tiempo, unidad)) {
+				throw new TimeoutException();
+			}
+			return resultado();
+		}
+
+		private T resultado() throws ExecutionException {
+			if (error != null) {
+				throw new ExecutionException(error.getMessage(), error);
+			}
+			return valor;
+		}
+
+		public boolean isDone() {
+			return lista.getCount() == 0;
+		}
+
+		/** La peticion ya se envio, no se puede cancelar */
+		public boolean cancel(boolean interrumpir) {
+			return false;
+		}
+
+		public boolean isCancelled() {
+			return false;
+		}
+	}
+
+
+	/** Se conecta a 'servidor':'puerto' (puerto_binario del servidor) */
+	public ClienteBinario(String servidor, int puerto) throws IOException {
+		socket = new Socket(servidor, puerto);
+		socket.setTcpNoDelay(true);
+		salida = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+		entrada = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+		siguienteId = new AtomicInteger();
+		pendientes = new ConcurrentHashMap<Integer, Pendiente<?>>();
+
+		Thread lector = new Thread(new Runnable() {
+			public void run() {
+				leerRespuestas();
+			}
+		}, "cliente-binario");
+		lector.setDaemon(true);
+		lector.start();
+	}
+
+
+	/** Retorna el nombre de la persona a la que corresponde la huella */
+	public String identificar(byte[] huella) throws Exception {
+		return esperar(enviarIdentificar(huella));
+	}
+
+	public Future<String> enviarIdentificar(byte[] huella) throws IOException {
+		return enviar(IDENTIFICAR, null, huella, new Pendiente<String>() {
+			String leer(ByteBuffer cuerpo) {
+				return new String(cuerpo.array(), cuerpo.position(), cuerpo.remaining(), UTF8);
+			}
+		});
+	}
+
+	/** Compara la huella solo contra las huellas enroladas con 'nombre' */
+	public Verificacion verificar(String nombre, byte[] huella) throws Exception {
+		return esperar(enviarVerificar(nombre, huella));
+	}
+
+	public Future<Verificacion> enviarVerificar(String nombre, byte[] huella) throws IOException {
+		return enviar(VERIFICAR, nombre, huella, new Pendiente<Verificacion>() {
+			Verificacion leer(ByteBuffer cuerpo) {
+				return new Verificacion(cuerpo.get() != 0, cuerpo.getInt());
+			}
+		});
+	}
+
+	/** Retorna el mismo codigo que guardarHuella del web service */
+	public int guardar(String nombre, byte[] huella) throws Exception {
+		return esperar(enviarGuardar(nombre, huella));
+	}
+
+	public Future<Integer> enviarGuardar(String nombre, byte[] huella) throws IOException {
+		return enviar(GUARDAR, nombre, huella, new Pendiente<Integer>() {
+			Integer leer(ByteBuffer cuerpo) {
+				return cuerpo.getInt();
+			}
+		});
+	}
+
+	/** Cierra la conexion; las peticiones sin respuesta fallan */
+	public void cerrar() {
+		try {
+			socket.close();
+		} catch (IOException e) {
+			// Ya estaba cerrada
+		}
+	}
+
+
+	/** Escribe la peticion [int longitud][int id][byte operacion][cuerpo] */
+	private <T> Future<T> enviar(byte operacion, String nombre, byte[] huella, Pendiente<T> pendiente)
+			throws IOException {
+		byte[] texto = nombre == null ? null : nombre.getBytes(UTF8);
+		int longitud = 5 + (texto == null ? 0 : 4 + texto.length) + huella.length;
+		int id = siguienteId.incrementAndGet();
+
+		// Se registra antes de revisar la falla: si el lector ya la vio, no encontrara esta
+		// peticion y quedaria esperando para siempre
+		pendientes.put(id, pendiente);
+		try {
+			if (falla != null) {
+				throw falla;
+			}
+			synchronized (salida) {
+				salida.writeInt(longitud);
+				salida.writeInt(id);
+				salida.writeByte(operacion);
+				if (texto != null) {
+					salida.writeInt(texto.length);
+					salida.write(texto);
+				}
+				salida.write(huella);
+				salida.flush();
+			}
+		} catch (IOException e) {
+			pendientes.remove(id);
+			throw e;
+		}
+		return pendiente;
+	}
+
+	/** Cualquier falla, incluso una respuesta que no se puede interpretar, cierra la
+	 *  conexion y hace fallar todas las peticiones pendientes */
+	private void leerRespuestas() {
+		Pendiente<?> pendiente = null;
+		try {
+			while (true) {
+				int longitud = entrada.readInt();
+				int id = entrada.readInt();
+				byte estado = entrada.readByte();
+				if (longitud < 5) {
+					throw new IOException("Respuesta de longitud invalida: " + longitud);
+				}
+				byte[] cuerpo = new byte[longitud - 5];
+				entrada.readFully(cuerpo);
+
+				pendiente = pendientes.remove(id);
+				if (pendiente != null) {
+					pendiente.completar(estado, ByteBuffer.wrap(cuerpo));
+				}
+				pendiente = null;
+			}
+		} catch (Throwable t) {
+			IOException e = t instanceof IOException ? (IOException) t
+					: new IOException("Respuesta invalida del servidor: " + t, t);
+			falla = e;
+			if (pendiente != null) {
+				pendiente.fallar(e);
+			}
+			for (Integer id : pendientes.keySet()) {
+				Pendiente<?> otra = pendientes.remove(id);
+				if (otra != null) {
+					otra.fallar(e);
+				}
+			}
+			cerrar();
+		}
+	}
+
+	/** Espera la respuesta y lanza el error del servidor como Exception */
+	private static <T> T esperar(Future<T> respuesta) throws Exception {
+		try {
+			return respuesta.get();
+		} catch (ExecutionException e) {
+			throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+		}
+	}
+}
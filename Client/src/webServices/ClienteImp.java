@@ -17,6 +17,7 @@ import descargados.InterServer;
 
 import local.Lector;
 import local.Licencias;
+import local.RegistroOperaciones;
 
 
 import java.io.IOException;
@@ -52,7 +53,7 @@ public class ClienteImp {
 	private Licencias licencia = new Licencias();
 	private boolean primeraLectura;
 	private boolean isOpen;			/** Indica que se ha ejecutado el metodo abrir() */
-	private String mensaje;			/** Muestra los mensajes que se obtienen al realizar operaciones con el lector */
+	private RegistroOperaciones registro;	/** Mensajes que se obtienen al realizar operaciones con el lector */
 
 	
     public ClienteImp(){    	
@@ -60,10 +61,20 @@ public class ClienteImp {
     	lector = new Lector();
     	primeraLectura = true;
     	isOpen=false;
+    	registro = new RegistroOperaciones(100);
     }
     
+	/** Mensajes de las ultimas operaciones, uno por linea */
 	public String getMensaje() {
-		return mensaje;
+		return registro.getTexto(registro.getCapacidad());
+	}
+
+	public RegistroOperaciones getRegistro() {
+		return registro;
+	}
+
+	private void registrar(String texto) {
+		registro.registrar("cliente", texto);
 	}
 	
 	/** Permite obtener la huella leida desde el lector 
@@ -71,7 +82,7 @@ public class ClienteImp {
 	public NSubject getSubject() throws Exception{
 		
 		if(lector.getSubject() == null){
-			this.mensaje = this.mensaje + "\n" + "Aun no se ha leido huella desde el lector";
+			registrar("Aun no se ha leido huella desde el lector");
 			throw new Exception("Aun no se ha leido huella desde el lector");			
 			}
 		
@@ -82,21 +93,21 @@ public class ClienteImp {
 		try {
 			isOpen = true;
 			if(!licencia.obtenerLicencias()){
-				this.mensaje = this.mensaje + "\n" + "No se pudo obtener Licencias";
+				registrar("No se pudo obtener Licencias");
 				return -3;
 			}
 			else{
-				this.mensaje = this.mensaje + "\n" + "Apertura";
+				registrar("Apertura");
 			}
 			return 0;
 		}
 		catch(TimeoutException e){
-			this.mensaje = this.mensaje + "\n" + "Tiempo de espera agotado";
+			registrar("Tiempo de espera agotado");
 			return -1;
 		}
 		catch (Exception e) {
 			// TODO: handle exception
-			this.mensaje = this.mensaje + "\n" + "No se ha obtenido Licencia";
+			registrar("No se ha obtenido Licencia");
 			return -2;
 		}
 	}
@@ -112,16 +123,16 @@ public class ClienteImp {
 			
 			// Si se encuentra algun lector...
 			if(this.lector.getSelectedScanner() != null){				
-				this.mensaje = this.mensaje + "\n" + this.lector.getSelectedScanner().toString();
+				registrar(this.lector.getSelectedScanner().toString());
 				return 0;
 			}
 			else{				
-				this.mensaje = this.mensaje + "\n" + "No se ha detectado lector";
+				registrar("No se ha detectado lector");
 				return -1;
 			}
 		}
 		catch(Exception e){
-			this.mensaje = this.mensaje + "\n" + "Error interno";
+			registrar("Error interno");
 			return -2;
 		}	
 		
@@ -144,7 +155,7 @@ public class ClienteImp {
 
 			// Si no se encuentra ningun lector...
 			if(this.lector.getSelectedScanner() == null){
-				this.mensaje = this.mensaje + "\n" + "No existe lector";
+				registrar("No existe lector");
 				return -2;
 			}
 		}
@@ -153,16 +164,16 @@ public class ClienteImp {
 		res = lector.startCapturing();
 		
 		if(lector.isBad_object()){
-			this.mensaje = this.mensaje + "\n" + "La huella es de baja calidad";
+			registrar("La huella es de baja calidad");
 			return -1;
 		}
 		
 		if (!res){
-			this.mensaje = this.mensaje + "\n" + "La huella no ha sido leida";
+			registrar("La huella no ha sido leida");
 			return -1;
 		}
 		
-		this.mensaje = this.mensaje + "\n" + "La huella ha sido leida correctamente";
+		registrar("La huella ha sido leida correctamente");
 		return 0;
 			
 	}
@@ -171,11 +182,11 @@ public class ClienteImp {
 	public int cerrar() {
 		if (isOpen){			
 			NCore.shutdown();
-			this.mensaje = this.mensaje + "\n" + "Cierre";
+			registrar("Cierre");
 			return 0;
 		}
 		else{			
-			this.mensaje = this.mensaje + "\n" + "No se ha invocado aun el metodo abrir";
+			registrar("No se ha invocado aun el metodo abrir");
 			return -1;
 		}		
 	}		
@@ -185,10 +196,10 @@ public class ClienteImp {
 		try {
 			ping = InetAddress.getByName(ip);
 			if(ping.isReachable(Integer.parseInt(pingTime))){
-				this.mensaje = this.mensaje + "\n" +ip+" - responde!";
+				registrar(ip+" - responde!");
 				return true;
 			}else {
-				this.mensaje = this.mensaje + "\n" +ip+" - no responde!";
+				registrar(ip+" - no responde!");
 			}
 			
 		}catch (IOException ex) { System.out.println(ex);}
@@ -207,10 +218,10 @@ public class ClienteImp {
         Service service=null;
         try {
         	 service = Service.create(url, qname);
-        	 this.mensaje = this.mensaje + "\n" +"WService Activo!";
+        	 registrar("WService Activo!");
         	 return true;
 		} catch (WebServiceException e) {
-			this.mensaje = this.mensaje + "\n" +"WService no disponible";
+			registrar("WService no disponible");
 			return false;
 		}
 	}
@@ -247,11 +258,11 @@ public class ClienteImp {
 	        //System.out.println(buffer);
  	        
 	        res = 0;
-	        mensaje += "\nLas configuraciones han sido leidas correctamente";
+	        registrar("Las configuraciones han sido leidas correctamente");
 
 	    } catch (IOException ex) {
 	        ex.printStackTrace();
-	        mensaje += "\nProblema con la lectura del archivo de configuracion";
+	        registrar("Problema con la lectura del archivo de configuracion");
 	        res = -1;
 	    } finally {
 	        if (entrada != null) {
@@ -259,8 +270,8 @@ public class ClienteImp {
 	                entrada.close();
 	            } catch (IOException e) {
 	                e.printStackTrace();
-	                mensaje += "\nProblema con la lectura del archivo de configuracion. "
-	                		+ "Tampoco puede cerrarse";
+	                registrar("Problema con la lectura del archivo de configuracion. "
+	                		+ "Tampoco puede cerrarse");
 	                res = -2;
 	            }
 	        }
@@ -3,6 +3,7 @@ package webServices;
 import javax.xml.ws.Service;
 import javax.xml.namespace.QName;
 import javax.xml.ws.WebServiceException;
+import javax.xml.ws.soap.MTOMFeature;
 
 import java.net.URL;
 import java.net.MalformedURLException;
@@ -58,7 +59,7 @@ public class ClienteWS {
         
 		
         // Extract the endpoint interface, the service "port".
-        InterServer h = service.getPort(InterServer.class);   
+        InterServer h = service.getPort(InterServer.class, new MTOMFeature());   
         
         
         // Se abre el dispositivo para su uso (comprobacion licencias)
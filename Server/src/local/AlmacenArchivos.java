@@ -0,0 +1,97 @@
+package local;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.neurotec.io.NBuffer;
+import com.neurotec.io.NFile;
+
+
+/** Almacen original: un archivo por plantilla dentro del directorio de huellas,
+ *  con el nombre time-nombre */
+public class AlmacenArchivos implements AlmacenHuellas {
+
+	private String directorio;		/** Directorio donde se almacenan las huellas */
+
+
+	public AlmacenArchivos(String directorio) {
+		this.directorio = directorio;
+	}
+
+	public String getDirectorio() {
+		return directorio;
+	}
+
+	public long guardar(String clave, NBuffer plantilla) throws IOException {
+		String ubicacion = directorio.concat(clave);
+		NFile.writeAllBytes(ubicacion, plantilla);
+		return new File(ubicacion).lastModified();
+	}
+
+	/** Si una escritura falla se borran los archivos nuevos que el lote ya escribio,
+	 *  asi no quedan huellas guardadas de un lote que se informo como fallido */
+	public long[] guardarLote(List<String> claves, List<NBuffer> plantillas) throws IOException {
+		long[] marcas = new long[claves.size()];
+		ArrayList<File> escritos = new ArrayList<File>(marcas.length);
+		boolean completo = false;
+		try {
+			for (int i = 0; i < marcas.length; i++) {
+				File archivo = new File(directorio.concat(claves.get(i)));
+				boolean existia = archivo.exists();
+				marcas[i] = guardar(claves.get(i), plantillas.get(i));
+				if (!existia) {
+					escritos.add(archivo);
+				}
+			}
+			completo = true;
+		} finally {
+			if (!completo) {
+				for (File archivo : escritos) {
+					if (!archivo.delete()) {
+						System.out.println("No se pudo borrar " + archivo.getName() + " del lote fallido");
+					}
+				}
+			}
+		}
+		return marcas;
+	}
+
+	public NBuffer leer(String clave) throws IOException {
+		File archivo = new File(directorio.concat(clave));
+		return archivo.isFile() ? NFile.readAllBytes(archivo.getPath()) : null;
+	}
+
+	public long getMarca(String clave) {
+		File archivo = new File(directorio.concat(clave));
+		return archivo.isFile() ? archivo.lastModified() : -1;
+	}
+
+	public boolean eliminar(String clave) throws IOException {
+		return new File(directorio.concat(clave)).delete();
+	}
+
+	public void recorrer(Visitante visitante) throws Exception {
+		for (String clave : listar()) {
+			File archivo = new File(directorio.concat(clave));
+			visitante.visitar(clave, NFile.readAllBytes(archivo.getPath()), archivo.lastModified());
+		}
+	}
+
+	public ArrayList<String> listar() throws IOException {
+		ArrayList<String> claves = new ArrayList<String>();
+		File[] ficheros = new File(directorio).listFiles();
+		if (ficheros != null) {
+			for (File fichero : ficheros) {
+				if (fichero.isFile() && !fichero.getName().startsWith(".")) {
+					claves.add(fichero.getName());
+				}
+			}
+		}
+		return claves;
+	}
+
+	public void cerrar() {
+	}
+}
@@ -0,0 +1,44 @@
+package local;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.neurotec.io.NBuffer;
+
+
+/** Lugar donde se persisten las plantillas de las huellas.
+ *  La clave de cada plantilla tiene el formato: time-nombre */
+public interface AlmacenHuellas {
+
+	/** Recibe cada plantilla almacenada durante un recorrido */
+	public interface Visitante {
+		/** 'marca' crece con cada escritura, permite saber que plantilla es mas reciente */
+		public void visitar(String clave, NBuffer plantilla, long marca) throws Exception;
+	}
+
+	/** Guarda la plantilla con la clave indicada, retorna su marca */
+	public long guardar(String clave, NBuffer plantilla) throws IOException;
+
+	/** Guarda varias plantillas de una vez, retorna la marca de cada una. Un almacen
+	 *  que lo permite las escribe con una sola escritura y una sola sincronizacion.
+	 *  Si lanza excepcion no queda guardada ninguna plantilla nueva del lote */
+	public long[] guardarLote(List<String> claves, List<NBuffer> plantillas) throws IOException;
+
+	/** Lee una sola plantilla, null si no existe */
+	public NBuffer leer(String clave) throws IOException;
+
+	/** Marca con la que se guardo la plantilla, -1 si no existe */
+	public long getMarca(String clave);
+
+	/** Borra la plantilla, retorna false si no existia */
+	public boolean eliminar(String clave) throws IOException;
+
+	/** Visita todas las plantillas almacenadas */
+	public void recorrer(Visitante visitante) throws Exception;
+
+	/** Claves de todas las plantillas almacenadas */
+	public ArrayList<String> listar() throws IOException;
+
+	public void cerrar() throws IOException;
+}
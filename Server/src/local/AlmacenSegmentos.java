@@ -0,0 +1,662 @@
+package local;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import com.neurotec.io.NBuffer;
+
+
+/** Almacen de plantillas en segmentos de solo escritura al final (append-only).
+ *
+ *  Cada segmento (segmento-NNNNNN.dat) es una sucesion de registros:
+ *  [int largo][int crc][byte tipo][long secuencia][short largoClave][clave][plantilla]
+ *  donde 'largo' y 'crc' cubren desde 'tipo' hasta el final del registro.
+ *  Un borrado se escribe como un registro de tipo BORRADO sin plantilla.
+ *
+ *  El indice (indice.idx) guarda la ubicacion del ultimo registro vigente de cada
+ *  clave y hasta que posicion de que segmento es valido; al abrir se recorre solo
+ *  lo escrito despues de esa posicion. Un registro danado con un largo valido se
+ *  salta; lo que no se puede leer al final del segmento actual se aparta a un
+ *  archivo .cuarentena antes de descartarlo.
+ *
+ *  Para cargar la galeria los segmentos se mapean en memoria (FileChannel.map) y
+ *  cada plantilla se entrega como una porcion del mapa, sin pasar por el heap */
+public class AlmacenSegmentos implements AlmacenHuellas {
+
+	private static final byte PLANTILLA = 1;
+	private static final byte BORRADO = 2;
+	private static final int CABECERA = 4 + 4;				/** largo + crc */
+	private static final int FIJO = 1 + 8 + 2;				/** tipo + secuencia + largoClave */
+	private static final int LARGO_MAXIMO = 64 * 1024 * 1024;
+	private static final int CLAVE_MAXIMA = 0xFFFF;			/** Bytes de una clave, su largo se guarda en un short */
+	private static final long SEGMENTO_MAXIMO = 1024L * 1024 * 1024;	/** Un mapa no puede superar 2GB */
+	private static final int FIRMA_INDICE = 0x48494458;		/** "HIDX" */
+	private static final String INDICE = "indice.idx";
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/** Ordena las ubicaciones como estan en disco: por segmento y posicion */
+	private static final Comparator<Ubicacion> ORDEN_EN_DISCO = new Comparator<Ubicacion>() {
+		public int compare(Ubicacion a, Ubicacion b) {
+			if (a.segmento != b.segmento) {
+				return a.segmento < b.segmento ? -1 : 1;
+			}
+			return a.posicion < b.posicion ? -1 : (a.posicion == b.posicion ? 0 : 1);
+		}
+	};
+
+	/** Ubicacion del registro vigente de una clave */
+	static class Ubicacion {
+		int segmento;
+		long posicion;
+		int largo;
+		long secuencia;
+		String clave;
+
+		Ubicacion(String clave, int segmento, long posicion, int largo, long secuencia) {
+			this.clave = clave;
+			this.segmento = segmento;
+			this.posicion = posicion;
+			this.largo = largo;
+			this.secuencia = secuencia;
+		}
+	}
+
+	/** Recibe cada registro valido durante el escaneo de un segmento */
+	interface Recorrido {
+		void registro(byte tipo, long secuencia, String clave, int segmento, long posicion,
+				byte[] cuerpo, int inicioPlantilla) throws Exception;
+	}
+
+	private File directorio;						/** Directorio de los segmentos */
+	private long tamanoSegmento;					/** Tamano a partir del cual se abre un segmento nuevo */
+	private boolean sincronizar;					/** Forzar a disco cada escritura */
+	private boolean verificarCrc = true;			/** Comprobar el crc de cada plantilla al recorrer */
+	private HashMap<String, Ubicacion> indice;		/** Clave -> registro vigente */
+	private long secuencia;							/** Ultima secuencia asignada */
+	private int segmentoActual;
+	private FileChannel escritura;					/** Canal del segmento donde se agrega */
+
+
+	public AlmacenSegmentos(String directorio, long tamanoSegmento, boolean sincronizar) throws IOException {
+		this.directorio = new File(directorio);
+		this.tamanoSegmento = Math.min(tamanoSegmento, SEGMENTO_MAXIMO);
+		this.sincronizar = sincronizar;
+		this.indice = new HashMap<String, Ubicacion>();
+		abrir();
+	}
+
+	public File getDirectorio() {
+		return directorio;
+	}
+
+	public void setVerificarCrc(boolean verificarCrc) {
+		this.verificarCrc = verificarCrc;
+	}
+
+	public synchronized long getSecuencia() {
+		return secuencia;
+	}
+
+	public synchronized int getCantidad() {
+		return indice.size();
+	}
+
+	public synchronized boolean contiene(String clave) {
+		return indice.containsKey(clave);
+	}
+
+
+	/** Carga el indice y recupera lo escrito despues de el. Lo que queda despues del
+	 *  ultimo registro legible del segmento actual (una escritura interrumpida o datos
+	 *  danados) se aparta y se descarta, para seguir escribiendo desde ahi */
+	private void abrir() throws IOException {
+		if (!directorio.exists() && !directorio.mkdirs()) {
+			throw new IOException("No se puede crear el directorio " + directorio);
+		}
+
+		int desdeSegmento = 1;
+		long desdePosicion = 0;
+		File archivoIndice = new File(directorio, INDICE);
+		if (archivoIndice.isFile()) {
+			try {
+				long[] hasta = leerIndice(archivoIndice);
+				desdeSegmento = (int) hasta[0];
+				desdePosicion = hasta[1];
+			} catch (IOException e) {
+				// Indice danado: se reconstruye recorriendo todos los segmentos
+				indice.clear();
+				secuencia = 0;
+			}
+		}
+
+		int ultimo = ultimoSegmento();
+		if (ultimo == 0) {
+			ultimo = 1;
+		}
+		if (desdeSegmento > ultimo) {
+			desdeSegmento = ultimo;
+			desdePosicion = 0;
+		}
+
+		Recorrido recuperador = new Recorrido() {
+			public void registro(byte tipo, long sec, String clave, int segmento, long posicion,
+					byte[] cuerpo, int inicioPlantilla) {
+				aplicar(tipo, sec, clave, segmento, posicion, CABECERA + cuerpo.length);
+			}
+		};
+
+		long fin = 0;
+		for (int segmento = desdeSegmento; segmento <= ultimo; segmento++) {
+			fin = escanear(segmento, segmento == desdeSegmento ? desdePosicion : 0, recuperador);
+		}
+
+		segmentoActual = ultimo;
+		RandomAccessFile archivo = new RandomAccessFile(archivoSegmento(segmentoActual), "rw");
+		escritura = archivo.getChannel();
+		if (escritura.size() > fin) {
+			apartar(segmentoActual, fin);
+			escritura.truncate(fin);
+		}
+		escritura.position(fin);
+	}
+
+	/** Copia el segmento desde 'desde' hasta el final a un archivo de cuarentena, para
+	 *  poder revisarlo a mano; no se pierde aunque luego se descarte del segmento */
+	private void apartar(int segmento, long desde) throws IOException {
+		File cuarentena = new File(directorio, String.format("segmento-%06d.%d.cuarentena", segmento, desde));
+		FileChannel copia = new FileOutputStream(cuarentena).getChannel();
+		try {
+			long copiados = 0;
+			long total = escritura.size() - desde;
+			while (copiados < total) {
+				copiados += escritura.transferTo(desde + copiados, total - copiados, copia);
+			}
+		} finally {
+			copia.close();
+		}
+		System.out.println((escritura.size() - desde) + " bytes ilegibles al final del segmento " + segmento
+				+ " apartados en " + cuarentena.getName());
+	}
+
+	private void aplicar(byte tipo, long sec, String clave, int segmento, long posicion, int largo) {
+		if (sec > secuencia) {
+			secuencia = sec;
+		}
+		if (tipo == PLANTILLA) {
+			indice.put(clave, new Ubicacion(clave, segmento, posicion, largo, sec));
+		}
+		else {
+			indice.remove(clave);
+		}
+	}
+
+
+	public long guardar(String clave, NBuffer plantilla) throws IOException {
+		return guardar(clave, plantilla.toByteArray());
+	}
+
+	/** Igual que guardar(clave, plantilla), con la plantilla ya en un arreglo */
+	synchronized long guardar(String clave, byte[] datos) throws IOException {
+		long sec = ++secuencia;
+		ByteBuffer registro = armarRegistro(PLANTILLA, sec, clave, datos);
+		escribir(registro, clave, PLANTILLA, sec);
+		if (sincronizar) {
+			escritura.force(false);
+		}
+		return sec;
+	}
+
+	/** Escritura agrupada: los registros del lote se escriben juntos (una escritura por
+	 *  segmento que ocupen) y se sincroniza a disco una sola vez al final.
+	 *  Es todo o nada: si falla se descarta lo que alcanzo a escribirse y el indice
+	 *  queda como estaba */
+	public synchronized long[] guardarLote(List<String> claves, List<NBuffer> plantillas) throws IOException {
+		// Se arman antes de escribir, una clave invalida rechaza el lote sin tocar el disco
+		ByteBuffer[] armados = new ByteBuffer[claves.size()];
+		long[] marcas = new long[armados.length];
+		for (int i = 0; i < armados.length; i++) {
+			marcas[i] = secuencia + 1 + i;
+			armados[i] = armarRegistro(PLANTILLA, marcas[i], claves.get(i), plantillas.get(i).toByteArray());
+		}
+
+		int segmentoInicial = segmentoActual;
+		long posicionInicial = escritura.position();
+		ArrayList<ByteBuffer> registros = new ArrayList<ByteBuffer>();
+		ArrayList<Ubicacion> ubicaciones = new ArrayList<Ubicacion>(armados.length);
+		try {
+			long posicion = posicionInicial;
+			for (int i = 0; i < armados.length; i++) {
+				int largo = armados[i].remaining();
+				if (posicion > 0 && posicion + largo > tamanoSegmento) {
+					escribirJuntos(registros);
+					rotar(false);
+					posicion = 0;
+				}
+				registros.add(armados[i]);
+				ubicaciones.add(new Ubicacion(claves.get(i), segmentoActual, posicion, largo, marcas[i]));
+				posicion += largo;
+			}
+			escribirJuntos(registros);
+			if (sincronizar) {
+				escritura.force(false);
+			}
+		} catch (IOException e) {
+			deshacerLote(segmentoInicial, posicionInicial);
+			throw e;
+		}
+
+		// Recien con todo el lote escrito se agrega al indice
+		for (Ubicacion ubicacion : ubicaciones) {
+			aplicar(PLANTILLA, ubicacion.secuencia, ubicacion.clave, ubicacion.segmento,
+					ubicacion.posicion, ubicacion.largo);
+		}
+		if (segmentoActual != segmentoInicial) {
+			try {
+				guardarIndice();
+			} catch (IOException e) {
+				// El lote ya esta escrito; al abrir se recupera recorriendo los segmentos
+				System.out.println("No se pudo guardar el indice de segmentos: " + e.getMessage());
+			}
+		}
+		return marcas;
+	}
+
+	/** Escribe los registros en el segmento actual con una escritura agrupada (gathering) */
+	private void escribirJuntos(ArrayList<ByteBuffer> registros) throws IOException {
+		ByteBuffer[] buffers = registros.toArray(new ByteBuffer[registros.size()]);
+		long pendiente = 0;
+		for (ByteBuffer buffer : buffers) {
+			pendiente += buffer.remaining();
+		}
+		while (pendiente > 0) {
+			pendiente -= escritura.write(buffers);
+		}
+		registros.clear();
+	}
+
+	/** Descarta lo escrito por un lote que fallo: los segmentos que abrio y lo que agrego
+	 *  al segmento donde empezo */
+	private void deshacerLote(int segmentoInicial, long posicionInicial) {
+		try {
+			while (segmentoActual > segmentoInicial) {
+				escritura.close();
+				if (!archivoSegmento(segmentoActual).delete()) {
+					System.out.println("No se pudo borrar el segmento " + segmentoActual + " del lote fallido");
+				}
+				segmentoActual--;
+				escritura = new RandomAccessFile(archivoSegmento(segmentoActual), "rw").getChannel();
+			}
+			descartarDesde(posicionInicial);
+		} catch (IOException e) {
+			System.out.println("No se pudo descartar el lote fallido: " + e.getMessage());
+		}
+	}
+
+	/** Quita del segmento actual lo escrito desde 'posicion' */
+	private void descartarDesde(long posicion) throws IOException {
+		escritura.truncate(posicion);
+		escritura.position(posicion);
+	}
+
+	/** Lee el registro vigente de la clave con una lectura posicionada */
+	public NBuffer leer(String clave) throws IOException {
+		Ubicacion ubicacion;
+		synchronized (this) {
+			ubicacion = indice.get(clave);
+		}
+		if (ubicacion == null) {
+			return null;
+		}
+		byte[] registro = new byte[ubicacion.largo];
+		RandomAccessFile archivo = new RandomAccessFile(archivoSegmento(ubicacion.segmento), "r");
+		try {
+			archivo.seek(ubicacion.posicion);
+			archivo.readFully(registro);
+		} finally {
+			archivo.close();
+		}
+		CRC32 crc = new CRC32();
+		crc.update(registro, CABECERA, registro.length - CABECERA);
+		if ((int) crc.getValue() != ByteBuffer.wrap(registro).getInt(4)) {
+			throw new IOException("Registro danado: " + clave);
+		}
+		int inicio = CABECERA + FIJO + (ByteBuffer.wrap(registro).getShort(CABECERA + 1 + 8) & 0xFFFF);
+		return new NBuffer(registro, inicio, registro.length - inicio);
+	}
+
+	public synchronized long getMarca(String clave) {
+		Ubicacion ubicacion = indice.get(clave);
+		return ubicacion == null ? -1 : ubicacion.secuencia;
+	}
+
+	public synchronized boolean eliminar(String clave) throws IOException {
+		if (!indice.containsKey(clave)) {
+			return false;
+		}
+		long sec = ++secuencia;
+		escribir(armarRegistro(BORRADO, sec, clave, new byte[0]), clave, BORRADO, sec);
+		if (sincronizar) {
+			escritura.force(false);
+		}
+		return true;
+	}
+
+	/** Agrega el registro al final del segmento actual, abriendo uno nuevo si esta lleno */
+	private void escribir(ByteBuffer registro, String clave, byte tipo, long sec) throws IOException {
+		int largo = registro.remaining();
+		if (escritura.position() > 0 && escritura.position() + largo > tamanoSegmento) {
+			rotar();
+		}
+		long posicion = escritura.position();
+		try {
+			while (registro.hasRemaining()) {
+				escritura.write(registro);
+			}
+		} catch (IOException e) {
+			// No se deja un registro a medias delante de los siguientes
+			try {
+				descartarDesde(posicion);
+			} catch (IOException ignorada) {
+				// Se recupera al abrir
+			}
+			throw e;
+		}
+		aplicar(tipo, sec, clave, segmentoActual, posicion, largo);
+	}
+
+	/** Cierra el segmento actual y abre el siguiente. Se aprovecha para persistir el indice */
+	private void rotar() throws IOException {
+		rotar(true);
+	}
+
+	/** Un lote no guarda el indice al rotar: aun no tiene sus registros */
+	private void rotar(boolean guardar) throws IOException {
+		escritura.force(false);
+		escritura.close();
+		segmentoActual++;
+		escritura = new RandomAccessFile(archivoSegmento(segmentoActual), "rw").getChannel();
+		if (guardar) {
+			guardarIndice();
+		}
+	}
+
+	private static ByteBuffer armarRegistro(byte tipo, long sec, String clave, byte[] datos) throws IOException {
+		byte[] bytesClave = clave.getBytes(UTF8);
+		if (bytesClave.length > CLAVE_MAXIMA) {
+			throw new IOException("La clave excede " + CLAVE_MAXIMA + " bytes");
+		}
+		int largoCuerpo = FIJO + bytesClave.length + datos.length;
+		if (largoCuerpo > LARGO_MAXIMO) {
+			throw new IOException("La plantilla excede " + LARGO_MAXIMO + " bytes: " + clave);
+		}
+
+		ByteBuffer registro = ByteBuffer.allocate(CABECERA + largoCuerpo);
+		registro.putInt(largoCuerpo);
+		registro.putInt(0);
+		registro.put(tipo);
+		registro.putLong(sec);
+		registro.putShort((short) bytesClave.length);
+		registro.put(bytesClave);
+		registro.put(datos);
+
+		CRC32 crc = new CRC32();
+		crc.update(registro.array(), CABECERA, largoCuerpo);
+		registro.putInt(4, (int) crc.getValue());
+		registro.flip();
+		return registro;
+	}
+
+
+	/** Entrega las plantillas vigentes en el orden en que estan en disco. Cada segmento
+	 *  se mapea en memoria una vez y cada plantilla es una porcion (slice) del mapa que
+	 *  se pasa directo a NBuffer, sin copiarla a un byte[] intermedio */
+	public void recorrer(Visitante visitante) throws Exception {
+		ArrayList<Ubicacion> vigentes = new ArrayList<Ubicacion>();
+		synchronized (this) {
+			vigentes.addAll(indice.values());
+		}
+		Collections.sort(vigentes, ORDEN_EN_DISCO);
+
+		byte[] auxiliarCrc = new byte[1 << 16];
+		int segmentoMapeado = 0;
+		MappedByteBuffer mapa = null;
+
+		for (Ubicacion ubicacion : vigentes) {
+			if (ubicacion.segmento != segmentoMapeado) {
+				mapa = mapear(ubicacion.segmento);
+				segmentoMapeado = ubicacion.segmento;
+			}
+			if (ubicacion.posicion + ubicacion.largo > mapa.limit()) {
+				System.out.println("Registro fuera del segmento, se omite: " + ubicacion.clave);
+				continue;
+			}
+
+			ByteBuffer registro = mapa.duplicate();
+			registro.position((int) ubicacion.posicion);
+			registro.limit((int) ubicacion.posicion + ubicacion.largo);
+			registro = registro.slice();
+
+			int largoCuerpo = registro.getInt(0);
+			int esperado = registro.getInt(4);
+			if (largoCuerpo != ubicacion.largo - CABECERA
+					|| (verificarCrc && crc(registro, CABECERA, largoCuerpo, auxiliarCrc) != esperado)) {
+				System.out.println("Registro danado, se omite: " + ubicacion.clave);
+				continue;
+			}
+
+			int largoClave = registro.getShort(CABECERA + 1 + 8) & 0xFFFF;
+			registro.position(CABECERA + FIJO + largoClave);
+			ByteBuffer plantilla = registro.slice();
+
+			visitante.visitar(ubicacion.clave, NBuffer.fromByteBuffer(plantilla), ubicacion.secuencia);
+		}
+	}
+
+	/** Mapea el segmento completo en modo solo lectura. El mapa sigue valido despues
+	 *  de cerrar el canal */
+	private MappedByteBuffer mapear(int segmento) throws IOException {
+		RandomAccessFile archivo = new RandomAccessFile(archivoSegmento(segmento), "r");
+		try {
+			FileChannel canal = archivo.getChannel();
+			return canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+		} finally {
+			archivo.close();
+		}
+	}
+
+	/** CRC32 de una region de un buffer directo, copiando de a bloques a 'auxiliar' */
+	private static int crc(ByteBuffer buffer, int desde, int largo, byte[] auxiliar) {
+		CRC32 crc = new CRC32();
+		ByteBuffer region = buffer.duplicate();
+		region.position(desde);
+		region.limit(desde + largo);
+		while (region.hasRemaining()) {
+			int n = Math.min(auxiliar.length, region.remaining());
+			region.get(auxiliar, 0, n);
+			crc.update(auxiliar, 0, n);
+		}
+		return (int) crc.getValue();
+	}
+
+	public synchronized ArrayList<String> listar() {
+		return new ArrayList<String>(indice.keySet());
+	}
+
+
+	/** Lee los registros del segmento desde 'desde' y retorna la posicion siguiente al
+	 *  ultimo registro legible. Un registro con crc erroneo pero largo valido se omite y
+	 *  se sigue con el siguiente; con un largo invalido o incompleto se termina, no se
+	 *  sabe donde empieza el siguiente */
+	private long escanear(int segmento, long desde, Recorrido recorrido) throws IOException {
+		File archivo = archivoSegmento(segmento);
+		if (!archivo.isFile()) {
+			return 0;
+		}
+
+		InputStream entrada = new FileInputStream(archivo);
+		DataInputStream datos = null;
+		long posicion = desde;
+		try {
+			long saltados = 0;
+			while (saltados < desde) {
+				long n = entrada.skip(desde - saltados);
+				if (n <= 0) return saltados;
+				saltados += n;
+			}
+			datos = new DataInputStream(new BufferedInputStream(entrada, 1 << 16));
+			CRC32 crc = new CRC32();
+
+			while (true) {
+				int largo;
+				int esperado;
+				try {
+					largo = datos.readInt();
+					esperado = datos.readInt();
+				} catch (EOFException e) {
+					break;
+				}
+				if (largo < FIJO || largo > LARGO_MAXIMO) {
+					break;
+				}
+				byte[] cuerpo = new byte[largo];
+				try {
+					datos.readFully(cuerpo);
+				} catch (EOFException e) {
+					break;
+				}
+				crc.reset();
+				crc.update(cuerpo, 0, largo);
+				ByteBuffer lectura = ByteBuffer.wrap(cuerpo);
+				byte tipo = lectura.get();
+				long sec = lectura.getLong();
+				int largoClave = lectura.getShort() & 0xFFFF;
+				if ((int) crc.getValue() != esperado || FIJO + largoClave > largo) {
+					System.out.println("Registro danado en " + archivo.getName() + ", posicion " + posicion
+							+ ", se omite");
+					posicion += CABECERA + largo;
+					continue;
+				}
+
+				String clave = new String(cuerpo, FIJO, largoClave, UTF8);
+
+				try {
+					recorrido.registro(tipo, sec, clave, segmento, posicion, cuerpo, FIJO + largoClave);
+				} catch (IOException e) {
+					throw e;
+				} catch (Exception e) {
+					throw new IOException(e);
+				}
+				posicion += CABECERA + largo;
+			}
+		} finally {
+			if (datos != null) datos.close();
+			else entrada.close();
+		}
+		return posicion;
+	}
+
+
+	/** Escribe el indice en un archivo temporal y lo renombra, para no dejarlo a medias */
+	public synchronized void guardarIndice() throws IOException {
+		File temporal = new File(directorio, INDICE + ".tmp");
+		DataOutputStream salida = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(temporal), 1 << 16));
+		try {
+			salida.writeInt(FIRMA_INDICE);
+			salida.writeInt(segmentoActual);
+			salida.writeLong(escritura.position());
+			salida.writeLong(secuencia);
+			salida.writeInt(indice.size());
+			for (Map.Entry<String, Ubicacion> entrada : indice.entrySet()) {
+				Ubicacion ubicacion = entrada.getValue();
+				salida.writeUTF(entrada.getKey());
+				salida.writeInt(ubicacion.segmento);
+				salida.writeLong(ubicacion.posicion);
+				salida.writeInt(ubicacion.largo);
+				salida.writeLong(ubicacion.secuencia);
+			}
+		} finally {
+			salida.close();
+		}
+		File definitivo = new File(directorio, INDICE);
+		if (!temporal.renameTo(definitivo)) {
+			definitivo.delete();
+			if (!temporal.renameTo(definitivo)) {
+				throw new IOException("No se pudo reemplazar el indice " + definitivo);
+			}
+		}
+	}
+
+	/** Carga el indice, retorna {segmento, posicion} hasta donde es valido */
+	private long[] leerIndice(File archivo) throws IOException {
+		DataInputStream entrada = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(archivo), 1 << 16));
+		try {
+			if (entrada.readInt() != FIRMA_INDICE) {
+				throw new IOException("Indice con formato desconocido");
+			}
+			int segmento = entrada.readInt();
+			long posicion = entrada.readLong();
+			secuencia = entrada.readLong();
+			int cantidad = entrada.readInt();
+			for (int i = 0; i < cantidad; i++) {
+				String clave = entrada.readUTF();
+				indice.put(clave, new Ubicacion(clave, entrada.readInt(), entrada.readLong(),
+						entrada.readInt(), entrada.readLong()));
+			}
+			return new long[] {segmento, posicion};
+		} finally {
+			entrada.close();
+		}
+	}
+
+
+	public synchronized void cerrar() throws IOException {
+		if (escritura != null && escritura.isOpen()) {
+			escritura.force(false);
+			guardarIndice();
+			escritura.close();
+		}
+	}
+
+	private File archivoSegmento(int numero) {
+		return new File(directorio, String.format("segmento-%06d.dat", numero));
+	}
+
+	private int ultimoSegmento() {
+		String[] nombres = directorio.list();
+		int ultimo = 0;
+		if (nombres != null) {
+			for (String nombre : nombres) {
+				if (nombre.startsWith("segmento-") && nombre.endsWith(".dat")) {
+					try {
+						ultimo = Math.max(ultimo, Integer.parseInt(nombre.substring(9, nombre.length() - 4)));
+					} catch (NumberFormatException e) {
+						// No es un segmento
+					}
+				}
+			}
+		}
+		return ultimo;
+	}
+}
@@ -0,0 +1,34 @@
+package local;
+
+
+/** Persona candidata de una identificacion, con el puntaje de su mejor huella */
+public class Candidato {
+
+	private String nombre;		/** Nombre de la persona */
+	private int puntaje;		/** Puntaje de la coincidencia */
+
+
+	public Candidato() {
+	}
+
+	public Candidato(String nombre, int puntaje) {
+		this.nombre = nombre;
+		this.puntaje = puntaje;
+	}
+
+	public String getNombre() {
+		return nombre;
+	}
+
+	public void setNombre(String nombre) {
+		this.nombre = nombre;
+	}
+
+	public int getPuntaje() {
+		return puntaje;
+	}
+
+	public void setPuntaje(int puntaje) {
+		this.puntaje = puntaje;
+	}
+}
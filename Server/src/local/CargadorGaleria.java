@@ -0,0 +1,138 @@
+package local;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.neurotec.io.NBuffer;
+
+
+/** Lee las plantillas de un almacen con un grupo acotado de hilos y las entrega al
+ *  destino (la carga de la galeria) desde esos mismos hilos. Una plantilla que no
+ *  se puede leer o enrolar se registra como falla y la carga continua */
+public class CargadorGaleria {
+
+	private int hilos;							/** Hilos de lectura */
+	private int intervaloProgreso;				/** Cada cuantas huellas se informa el avance */
+	private AtomicInteger cargadas;
+	private int total = -1;						/** -1 si no se conoce de antemano */
+	private ArrayList<String> fallas;			/** "clave: motivo" de cada huella no cargada */
+	private ThreadPoolExecutor ejecutor;
+
+
+	public CargadorGaleria(int hilos, int intervaloProgreso) {
+		this.hilos = Math.max(1, hilos);
+		this.intervaloProgreso = Math.max(1, intervaloProgreso);
+		this.cargadas = new AtomicInteger();
+		this.fallas = new ArrayList<String>();
+	}
+
+	public int getCargadas() {
+		return cargadas.get();
+	}
+
+	public synchronized List<String> getFallas() {
+		return new ArrayList<String>(fallas);
+	}
+
+	public synchronized void registrarFalla(String clave, String motivo) {
+		fallas.add(clave + ": " + motivo);
+		System.out.println("No se pudo cargar la huella " + clave + ": " + motivo);
+	}
+
+
+	/** Lee todo el almacen en paralelo. Con un almacen de archivos cada hilo lee su
+	 *  parte de la lista; con otros almacenes el recorrido es secuencial y el resto
+	 *  del trabajo se reparte entre los hilos */
+	public void cargar(final AlmacenHuellas almacen, final AlmacenHuellas.Visitante destino) throws Exception {
+
+		if (almacen instanceof AlmacenArchivos) {
+			final ArrayList<String> claves = almacen.listar();
+			total = claves.size();
+
+			Thread[] lectores = new Thread[Math.min(hilos, Math.max(1, claves.size()))];
+			for (int h = 0; h < lectores.length; h++) {
+				final int desde = (int) ((long) claves.size() * h / lectores.length);
+				final int hasta = (int) ((long) claves.size() * (h + 1) / lectores.length);
+				lectores[h] = new Thread("carga-huellas-" + (h + 1)) {
+					public void run() {
+						for (int i = desde; i < hasta; i++) {
+							String clave = claves.get(i);
+							try {
+								NBuffer plantilla = almacen.leer(clave);
+								if (plantilla == null) {
+									registrarFalla(clave, "ya no existe");
+									continue;
+								}
+								entregar(destino, clave, plantilla, almacen.getMarca(clave));
+							} catch (Exception e) {
+								registrarFalla(clave, String.valueOf(e.getMessage()));
+							}
+						}
+					}
+				};
+				lectores[h].start();
+			}
+			for (Thread lector : lectores) {
+				lector.join();
+			}
+		}
+		else {
+			almacen.recorrer(enParalelo(destino));
+			terminar();
+		}
+	}
+
+
+	/** Visitante que entrega cada plantilla a 'destino' desde los hilos del cargador.
+	 *  La cola es acotada: si se llena, el hilo que recorre procesa la plantilla el mismo.
+	 *  Hay que invocar terminar() al finalizar el recorrido */
+	public AlmacenHuellas.Visitante enParalelo(final AlmacenHuellas.Visitante destino) {
+		ejecutor = new ThreadPoolExecutor(hilos, hilos, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(hilos * 4), new ThreadFactory() {
+					private int numero;
+					public synchronized Thread newThread(Runnable r) {
+						Thread hilo = new Thread(r, "carga-huellas-" + (++numero));
+						hilo.setDaemon(true);
+						return hilo;
+					}
+				}, new ThreadPoolExecutor.CallerRunsPolicy());
+
+		return new AlmacenHuellas.Visitante() {
+			public void visitar(final String clave, final NBuffer plantilla, final long marca) {
+				ejecutor.execute(new Runnable() {
+					public void run() {
+						try {
+							entregar(destino, clave, plantilla, marca);
+						} catch (Exception e) {
+							registrarFalla(clave, String.valueOf(e.getMessage()));
+						}
+					}
+				});
+			}
+		};
+	}
+
+	/** Espera a que se entreguen todas las plantillas recibidas por enParalelo() */
+	public void terminar() throws InterruptedException {
+		if (ejecutor != null) {
+			ejecutor.shutdown();
+			ejecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+			ejecutor = null;
+		}
+	}
+
+
+	private void entregar(AlmacenHuellas.Visitante destino, String clave, NBuffer plantilla,
+			long marca) throws Exception {
+		destino.visitar(clave, plantilla, marca);
+		int n = cargadas.incrementAndGet();
+		if (n % intervaloProgreso == 0) {
+			System.out.println("Cargadas " + n + (total >= 0 ? " de " + total : "") + " huellas...");
+		}
+	}
+}
@@ -0,0 +1,316 @@
+package local;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import com.neurotec.biometrics.NBiometricOperation;
+import com.neurotec.biometrics.NBiometricStatus;
+import com.neurotec.biometrics.NBiometricTask;
+import com.neurotec.biometrics.NMatchingResult;
+import com.neurotec.biometrics.NSubject;
+import com.neurotec.biometrics.client.NBiometricClient;
+import com.neurotec.io.NBuffer;
+
+
+/** Parte de la galeria con sus propios clientes de comparacion. Los fragmentos de una
+ *  galeria se recorren en paralelo y sus resultados se combinan.
+ *  Las busquedas toman un cliente del pool y no se bloquean entre si; las escrituras
+ *  se serializan con el bloqueo del fragmento y se aplican a los clientes de a uno,
+ *  asi con mas de una replica las busquedas no esperan a las escrituras */
+class Fragmento {
+
+	/** Resultados de una busqueda: id enrolado y puntaje en arreglos paralelos, sin un
+	 *  objeto por coincidencia */
+	static class Coincidencias {
+		int[] ids;
+		int[] puntajes;
+		int cantidad;
+
+		Coincidencias(int capacidad) {
+			ids = new int[Math.max(1, capacidad)];
+			puntajes = new int[ids.length];
+		}
+
+		void agregar(int id, int puntaje) {
+			if (cantidad == ids.length) {
+				ids = Arrays.copyOf(ids, cantidad * 2);
+				puntajes = Arrays.copyOf(puntajes, cantidad * 2);
+			}
+			ids[cantidad] = id;
+			puntajes[cantidad] = puntaje;
+			cantidad++;
+		}
+
+		void agregarTodas(Coincidencias otras) {
+			for (int i = 0; i < otras.cantidad; i++) {
+				agregar(otras.ids[i], otras.puntajes[i]);
+			}
+		}
+
+		/** Ordena de mayor a menor puntaje; cada par se empaqueta en un long para usar
+		 *  el ordenamiento de primitivos */
+		void ordenarPorPuntaje() {
+			long[] pares = new long[cantidad];
+			for (int i = 0; i < cantidad; i++) {
+				pares[i] = ((long) puntajes[i] << 32) | (ids[i] & 0xFFFFFFFFL);
+			}
+			Arrays.sort(pares);
+			for (int i = 0; i < cantidad; i++) {
+				long par = pares[cantidad - 1 - i];
+				puntajes[i] = (int) (par >> 32);
+				ids[i] = (int) par;
+			}
+		}
+	}
+
+	private PoolMatchers pool;					/** Clientes con las huellas de este fragmento */
+	private int umbral;							/** Umbral de coincidencia configurado */
+	private int maximoResultados;				/** Coincidencias por identificacion configuradas */
+	private ArrayList<NSubject> carga;			/** Huellas pendientes de enrolar en la carga */
+
+
+	/** 'maximoResultados': cuantas coincidencias entrega como maximo cada identificacion.
+	 *  'replicas': clientes del pool, cada uno con una copia de las huellas del fragmento.
+	 *  'hilos': hilos de cada cliente, 0 deja el valor por defecto */
+	Fragmento(int umbral, int maximoResultados, int replicas, int hilos) {
+		this.umbral = umbral;
+		this.maximoResultados = maximoResultados;
+		this.pool = new PoolMatchers(replicas, umbral, maximoResultados, hilos);
+	}
+
+	PoolMatchers getPool() {
+		return pool;
+	}
+
+
+	/** Agrega la huella al bloque de carga, se enrola al invocar enrolarCarga().
+	 *  Retorna true cuando el bloque ya tiene 'tamanoBloque' huellas */
+	synchronized boolean agregarACarga(NSubject subject, int tamanoBloque) {
+		if (carga == null) {
+			carga = new ArrayList<NSubject>();
+		}
+		carga.add(subject);
+		return carga.size() >= tamanoBloque;
+	}
+
+	/** Enrola en una sola tarea por cliente el bloque de carga pendiente. Si la tarea
+	 *  falla se enrola cada huella por separado; retorna los ids que no se pudieron
+	 *  enrolar, que se quitan de todos los clientes para que queden iguales */
+	synchronized ArrayList<String> enrolarCarga() {
+		LinkedHashSet<String> fallidos = new LinkedHashSet<String>();
+		if (carga == null) {
+			return new ArrayList<String>();
+		}
+		ArrayList<NSubject> bloque = carga;
+		carga = null;
+
+		for (int i = 0; i < pool.getCantidad(); i++) {
+			NBiometricClient cliente = pool.prestar(i);
+			try {
+				NBiometricTask tarea = cliente.createTask(EnumSet.of(NBiometricOperation.ENROLL), null);
+				tarea.getSubjects().addAll(bloque);
+				cliente.performTask(tarea);
+				if (tarea.getStatus() == NBiometricStatus.OK) {
+					continue;
+				}
+
+				System.out.format("Enrollment was unsuccessful. Status: %s.\n", tarea.getStatus());
+				for (NSubject subject : bloque) {
+					try {
+						NSubject enrolado = new NSubject();
+						enrolado.setId(subject.getId());
+						if (cliente.get(enrolado) != NBiometricStatus.OK
+								&& cliente.enroll(subject) != NBiometricStatus.OK) {
+							fallidos.add(subject.getId());
+						}
+					} catch (Exception e) {
+						fallidos.add(subject.getId());
+					}
+				}
+			} finally {
+				pool.devolver(cliente);
+			}
+		}
+		if (pool.getCantidad() > 1 && !fallidos.isEmpty()) {
+			for (int i = 0; i < pool.getCantidad(); i++) {
+				NBiometricClient cliente = pool.prestar(i);
+				try {
+					for (String id : fallidos) {
+						try {
+							cliente.delete(id);
+						} catch (Exception e) {
+							// No estaba enrolada en este cliente
+						}
+					}
+				} finally {
+					pool.devolver(cliente);
+				}
+			}
+		}
+		return new ArrayList<String>(fallidos);
+	}
+
+	/** Quita los ids de cada cliente, tomando cada cliente una sola vez */
+	synchronized void eliminar(List<String> ids) {
+		for (int i = 0; i < pool.getCantidad(); i++) {
+			NBiometricClient cliente = pool.prestar(i);
+			try {
+				for (String id : ids) {
+					cliente.delete(id);
+				}
+			} finally {
+				pool.devolver(cliente);
+			}
+		}
+	}
+
+	NSubject[] listar() throws InterruptedException {
+		NBiometricClient cliente = pool.prestar();
+		try {
+			return cliente.list();
+		} finally {
+			pool.devolver(cliente);
+		}
+	}
+
+
+	/** Compara la plantilla contra una sola huella enrolada. Retorna el puntaje aunque
+	 *  no alcance el umbral, quien llama decide si coincide; 0 si el id no esta enrolado */
+	int verificar(NBuffer plantilla, String id) throws Exception {
+
+		NBiometricClient cliente = pool.prestar();
+		NSubject enrolado = new NSubject();
+		NSubject subject = new NSubject();
+		try {
+			enrolado.setId(id);
+			if (cliente.get(enrolado) != NBiometricStatus.OK) {
+				return 0;
+			}
+
+			// Con el umbral configurado el motor informa 0 en vez del puntaje real
+			subject.setTemplateBuffer(plantilla);
+			cliente.setMatchingThreshold(0);
+			NBiometricStatus status = cliente.verify(subject, enrolado);
+
+			if (status == NBiometricStatus.OK) {
+				int puntaje = 0;
+				for (NMatchingResult matchingResult : subject.getMatchingResults()) {
+					puntaje = Math.max(puntaje, matchingResult.getScore());
+				}
+				return puntaje;
+			}
+			else if (status == NBiometricStatus.MATCH_NOT_FOUND) {
+				return 0;
+			}
+			throw new Exception("Verification failed. Status: " + status);
+		} finally {
+			try {
+				cliente.setMatchingThreshold(umbral);
+			} finally {
+				pool.devolver(cliente);
+				subject.dispose();
+				enrolado.dispose();
+			}
+		}
+	}
+
+	/** Id entero de una huella enrolada; el motor solo guarda ids de texto. Es el unico
+	 *  lugar donde se interpretan */
+	static int id(String id) {
+		return Integer.parseInt(id);
+	}
+
+	/** Compara la plantilla contra las huellas del fragmento */
+	Coincidencias identificar(NBuffer plantilla) throws Exception {
+		return identificar(plantilla, maximoResultados);
+	}
+
+	/** Igual que identificar(plantilla), entregando hasta 'maximo' coincidencias */
+	Coincidencias identificar(NBuffer plantilla, int maximo) throws Exception {
+
+		// Cada busqueda usa su propio sujeto, los resultados quedan en el
+		NSubject subject = new NSubject();
+		try {
+			subject.setTemplateBuffer(plantilla);
+
+			NBiometricStatus status;
+			NBiometricClient cliente = pool.prestar();
+			try {
+				if (maximo != maximoResultados) {
+					cliente.setMatchingMaximalResultCount(maximo);
+				}
+				status = cliente.identify(subject);
+			} finally {
+				try {
+					if (maximo != maximoResultados) {
+						cliente.setMatchingMaximalResultCount(maximoResultados);
+					}
+				} finally {
+					pool.devolver(cliente);
+				}
+			}
+
+			Coincidencias coincidencias = new Coincidencias(0);
+			if (status == NBiometricStatus.OK) {
+				NSubject.MatchingResultCollection resultados = subject.getMatchingResults();
+				coincidencias = new Coincidencias(resultados.size());
+				for (NMatchingResult matchingResult : resultados) {
+					coincidencias.agregar(id(matchingResult.getId()), matchingResult.getScore());
+				}
+			}
+			else if (status != NBiometricStatus.MATCH_NOT_FOUND) {
+				throw new Exception("Identification failed. Status: " + status);
+			}
+			return coincidencias;
+		} finally {
+			subject.dispose();
+		}
+	}
+
+	/** Busca solo la primera huella que alcance 'puntajeMinimo', nunca menor al umbral
+	 *  configurado; el motor deja de comparar apenas la encuentra. Retorna su id, o -1
+	 *  si ninguna lo alcanza */
+	int identificarPrimera(NBuffer plantilla, int puntajeMinimo) throws Exception {
+
+		NSubject subject = new NSubject();
+		try {
+			subject.setTemplateBuffer(plantilla);
+
+			// Mientras esta prestado el cliente solo lo usa esta busqueda, se puede reconfigurar
+			NBiometricClient cliente = pool.prestar();
+			try {
+				cliente.setMatchingThreshold(Math.max(umbral, puntajeMinimo));
+				cliente.setMatchingFirstResultOnly(true);
+				NBiometricStatus status = cliente.identify(subject);
+				if (status == NBiometricStatus.OK) {
+					for (NMatchingResult matchingResult : subject.getMatchingResults()) {
+						return id(matchingResult.getId());
+					}
+				}
+				else if (status != NBiometricStatus.MATCH_NOT_FOUND) {
+					throw new Exception("Identification failed. Status: " + status);
+				}
+				return -1;
+			} finally {
+				// Se devuelve aunque falle la restauracion: el umbral nunca queda por debajo
+				// del configurado
+				try {
+					cliente.setMatchingFirstResultOnly(false);
+					cliente.setMatchingThreshold(umbral);
+				} finally {
+					pool.devolver(cliente);
+				}
+			}
+		} finally {
+			subject.dispose();
+		}
+	}
+
+
+	synchronized void cerrar() {
+		pool.cerrar();
+	}
+}
@@ -0,0 +1,1002 @@
+package local;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import com.neurotec.biometrics.NSubject;
+import com.neurotec.io.NBuffer;
+import com.neurotec.io.NFile;
+
+
+/** Galeria de huellas enroladas una sola vez al iniciar el servidor.
+ *  Las huellas se reparten en fragmentos, cada uno con su propio NBiometricClient;
+ *  una identificacion recorre todos los fragmentos en paralelo y se queda con
+ *  la coincidencia de mayor puntaje.
+ *  Las busquedas no toman el bloqueo de la galeria: leen la ultima Instantanea
+ *  publicada. Las escrituras se serializan con el bloqueo, arman la instantanea
+ *  siguiente y la publican al terminar */
+public class Galeria {
+
+	/** Estado de la galeria que ven las busquedas. No cambia una vez publicado: cada
+	 *  escritura arma el siguiente a un lado y lo publica con una sola escritura volatil.
+	 *  Una busqueda solo acepta los ids que tienen nombre en su instantanea, asi no ve
+	 *  huellas a medio enrolar aunque los clientes ya las tengan.
+	 *  Cuenta las busquedas que la usan, mas una mientras es la actual. Un id liberado
+	 *  se recicla recien cuando ya nadie usa las instantaneas donde tenia su nombre
+	 *  anterior, asi una busqueda nunca lo resuelve a la persona equivocada */
+	private static final class Instantanea {
+		final Fragmento[] fragmentos;	/** Por posicion, null si el fragmento aun no se creo */
+		final Fragmento[] cargados;		/** Solo los fragmentos creados */
+		final RegistroIdentidades.Copia identidades;	/** Nombre de archivo y persona por id */
+		final Generacion generacion;	/** Carga a la que pertenecen los fragmentos */
+		final int cantidad;				/** Huellas enroladas */
+		final long version;
+		final AtomicInteger lectores = new AtomicInteger(1);
+		int[] liberados;				/** Ids que tienen nombre aqui y ya no en la siguiente */
+
+		Instantanea(Fragmento[] fragmentos, Fragmento[] cargados, RegistroIdentidades.Copia identidades,
+				Generacion generacion, int cantidad, long version) {
+			this.fragmentos = fragmentos;
+			this.cargados = cargados;
+			this.generacion = generacion;
+			this.identidades = identidades;
+			this.cantidad = cantidad;
+			this.version = version;
+		}
+
+		/** Nombre de archivo del id, null si esta libre */
+		String nombre(int id) {
+			return identidades.nombre(id);
+		}
+
+		/** Nombre de la persona del id, null si esta libre */
+		String persona(int id) {
+			return identidades.persona(id);
+		}
+
+		/** Reserva la instantanea; false si ya no es la actual y nadie la usa */
+		boolean tomar() {
+			while (true) {
+				int actuales = lectores.get();
+				if (actuales == 0) {
+					return false;
+				}
+				if (lectores.compareAndSet(actuales, actuales + 1)) {
+					return true;
+				}
+			}
+		}
+
+		/** Libera una reserva, o la de actual */
+		void soltar() {
+			if (lectores.decrementAndGet() == 0) {
+				generacion.soltar();
+			}
+		}
+
+		/** Ya nadie la usa ni la puede tomar */
+		boolean liberada() {
+			return lectores.get() == 0;
+		}
+	}
+
+	/** Fragmentos creados por una misma carga completa. Cuentan las instantaneas suyas
+	 *  que siguen en uso; se cierran cuando la cuenta llega a cero, asi una busqueda que
+	 *  tomo una instantanea antes de una carga nueva termina con sus fragmentos */
+	private static final class Generacion {
+		final Fragmento[] fragmentos;	/** El arreglo de la galeria mientras fue vigente */
+		final AtomicInteger instantaneas = new AtomicInteger();
+
+		Generacion(Fragmento[] fragmentos) {
+			this.fragmentos = fragmentos;
+		}
+
+		/** Una instantanea ya no se usa; la ultima cierra los fragmentos */
+		void soltar() {
+			if (instantaneas.decrementAndGet() == 0) {
+				for (Fragmento fragmento : fragmentos) {
+					if (fragmento != null) fragmento.cerrar();
+				}
+			}
+		}
+	}
+
+	/** Huella pendiente de agregar(); quien toma el bloqueo enrola todas las pendientes */
+	private static final class Alta {
+		final String nombre;
+		final NBuffer plantilla;
+		final long marca;
+		boolean atendida;
+		boolean enrolada;
+		Exception error;
+
+		Alta(String nombre, NBuffer plantilla, long marca) {
+			this.nombre = nombre;
+			this.plantilla = plantilla;
+			this.marca = marca;
+		}
+	}
+
+	private Fragmento[] fragmentos;				/** La huella con id 'i' esta en el fragmento i % K */
+	private ExecutorService busqueda;			/** Hilos que recorren los fragmentos */
+	private RegistroIdentidades identidades;	/** Id enrolado -> nombre de archivo y marca, y sus indices */
+	private final Object indices = new Object();	/** Protege 'identidades'; nunca se toma mientras se enrola */
+	private volatile Instantanea actual;		/** Ultimo estado publicado, las busquedas lo leen sin bloqueo */
+	private ArrayDeque<Instantanea> retiradas;	/** Instantaneas reemplazadas cuyos ids liberados aun no se reciclan, por version */
+	private Generacion generacion;				/** Generacion de 'fragmentos' */
+	private ConcurrentLinkedQueue<Alta> altas;	/** Huellas esperando entrar en el proximo lote */
+	private String path;						/** Directorio donde se almacenan las huellas */
+	private int umbral = 40;					/** Umbral de coincidencia */
+	private AtomicIntegerArray aciertos;		/** Coincidencias encontradas por fragmento, ordenan la busqueda rapida */
+	private int maxCandidatos = 10;				/** Candidatos que entrega como maximo candidatos() */
+	private int replicas = 2;					/** Clientes de comparacion por fragmento, al menos 2 */
+	private int hilosMatcher;					/** Hilos de cada cliente, 0 = por defecto */
+	private long version;						/** Aumenta con cada instantanea publicada */
+	private int hilosCarga = Runtime.getRuntime().availableProcessors();	/** Hilos de lectura al cargar */
+	private int bloqueCarga = 1000;				/** Huellas por tarea de enrolamiento al cargar */
+	private volatile CargadorGaleria ultimaCarga;	/** Resultado de la ultima carga completa */
+
+
+	public Galeria(String path) {
+		this(path, 1, 1);
+	}
+
+	/** 'cantidadFragmentos' particiones de la galeria, recorridas con 'hilos' hilos */
+	public Galeria(String path, int cantidadFragmentos, int hilos) {
+		this.path = path;
+		this.fragmentos = new Fragmento[Math.max(1, cantidadFragmentos)];
+		this.aciertos = new AtomicIntegerArray(fragmentos.length);
+		this.busqueda = Executors.newFixedThreadPool(Math.max(1, hilos), new ThreadFactory() {
+			private int numero;
+			public synchronized Thread newThread(Runnable r) {
+				Thread hilo = new Thread(r, "busqueda-huellas-" + (++numero));
+				hilo.setDaemon(true);
+				return hilo;
+			}
+		});
+		this.identidades = new RegistroIdentidades();
+		this.altas = new ConcurrentLinkedQueue<Alta>();
+		this.generacion = new Generacion(fragmentos);
+		this.retiradas = new ArrayDeque<Instantanea>();
+		publicar();
+	}
+
+	public String getPath() {
+		return path;
+	}
+
+	public int getUmbral() {
+		return umbral;
+	}
+
+	public void setUmbral(int umbral) {
+		this.umbral = umbral;
+	}
+
+	public int getMaxCandidatos() {
+		return maxCandidatos;
+	}
+
+	/** Se aplica a los fragmentos creados despues, hay que invocarlo antes de cargar */
+	public void setMaxCandidatos(int maxCandidatos) {
+		this.maxCandidatos = Math.max(1, maxCandidatos);
+	}
+
+	/** Se aplica a los fragmentos creados despues, hay que invocarlo antes de cargar.
+	 *  Cada replica guarda una copia de las huellas de su fragmento. Se usan al menos 2:
+	 *  una escritura toma las replicas de a una y con una sola bloquearia todas las
+	 *  busquedas del fragmento mientras dura */
+	public void setReplicas(int replicas) {
+		this.replicas = Math.max(2, replicas);
+	}
+
+	public void setHilosMatcher(int hilosMatcher) {
+		this.hilosMatcher = Math.max(0, hilosMatcher);
+	}
+
+	/** Prestamos de clientes de comparacion y tiempo esperando uno libre, de todos los fragmentos */
+	public String getEstadisticasMatchers() {
+		long prestamos = 0;
+		long esperaTotal = 0;
+		long esperaMaxima = 0;
+		for (Fragmento fragmento : actual.cargados) {
+			prestamos += fragmento.getPool().getPrestamos();
+			esperaTotal += fragmento.getPool().getEsperaTotal();
+			esperaMaxima = Math.max(esperaMaxima, fragmento.getPool().getEsperaMaxima());
+		}
+		return String.format("Clientes de comparacion: %d por fragmento, %d prestamos, espera total %d ms, "
+				+ "espera maxima %d ms", replicas, prestamos, esperaTotal / 1000000L, esperaMaxima / 1000000L);
+	}
+
+	/** Copia de los nombres de archivo enrolados */
+	public ArrayList<String> getNombres() {
+		synchronized (indices) {
+			return identidades.nombres();
+		}
+	}
+
+	/** Hasta 'tamano' nombres de archivo enrolados de las personas cuyo nombre empieza
+	 *  con 'prefijo' (null o vacio = todas), ordenados por persona y luego por nombre de
+	 *  archivo, a partir del nombre siguiente a 'cursor' (null = desde el inicio). El
+	 *  cursor de la pagina es su ultimo nombre: las huellas agregadas o eliminadas entre
+	 *  dos paginas no hacen repetir ni saltar las demas */
+	public PaginaHuellas listar(String cursor, int tamano, String prefijo) {
+		synchronized (indices) {
+			return identidades.listar(cursor, tamano, prefijo);
+		}
+	}
+
+	public void setHilosCarga(int hilosCarga) {
+		this.hilosCarga = hilosCarga;
+	}
+
+	public void setBloqueCarga(int bloqueCarga) {
+		this.bloqueCarga = Math.max(1, bloqueCarga);
+	}
+
+	/** Progreso y fallas de la ultima carga completa, null si aun no se cargo */
+	public CargadorGaleria getUltimaCarga() {
+		return ultimaCarga;
+	}
+
+	/** Version de la ultima instantanea publicada */
+	public long getVersion() {
+		return actual.version;
+	}
+
+	public int getCantidadFragmentos() {
+		return fragmentos.length;
+	}
+
+	public int getCantidad() {
+		return actual.cantidad;
+	}
+
+	/** Fecha de modificacion con la que se enrolo la huella, -1 si no esta enrolada */
+	public long getMarca(String nombre) {
+		synchronized (indices) {
+			int id = identidades.id(nombre);
+			return id < 0 ? -1 : identidades.marca(id);
+		}
+	}
+
+	public boolean contiene(String nombre) {
+		synchronized (indices) {
+			return identidades.contiene(nombre);
+		}
+	}
+
+
+	/** Enrola todas las huellas del almacen, reemplazando lo que hubiera enrolado antes */
+	public synchronized void cargar(AlmacenHuellas almacen) throws Throwable {
+		cargar(almacen, null);
+	}
+
+	/** Igual que cargar(almacen), pero partiendo del punto de control si existe: solo se
+	 *  leen del almacen las huellas guardadas o modificadas despues de escribirlo.
+	 *  Las huellas se leen en paralelo y se enrolan por bloques; las que fallan quedan
+	 *  registradas en getUltimaCarga() sin interrumpir la carga */
+	public synchronized void cargar(AlmacenHuellas almacen, PuntoControl puntoControl) throws Throwable {
+
+		CargadorGaleria cargador = new CargadorGaleria(hilosCarga, bloqueCarga);
+		final Carga carga = new Carga(cargador);
+
+		if (puntoControl == null || !puntoControl.existe()) {
+			cargador.cargar(almacen, carga);
+		}
+		else {
+			final AlmacenHuellas origen = almacen;
+			final HashSet<String> vigentes = new HashSet<String>(almacen.listar());
+			final AlmacenHuellas.Visitante destino = cargador.enParalelo(carga);
+			long secuencia;
+			try {
+				secuencia = puntoControl.recorrer(new AlmacenHuellas.Visitante() {
+					public void visitar(String clave, NBuffer plantilla, long marca) throws Exception {
+						// Lo borrado o reemplazado despues del punto de control se descarta
+						if (vigentes.contains(clave) && origen.getMarca(clave) == marca) {
+							vigentes.remove(clave);
+							destino.visitar(clave, plantilla, marca);
+						}
+					}
+				});
+				cargador.terminar();
+			} catch (Exception e) {
+				// Punto de control ilegible: se carga todo desde el almacen
+				System.out.println("Punto de control descartado: " + e.getMessage());
+				cargador.terminar();
+				carga.descartar();
+				cargador = new CargadorGaleria(hilosCarga, bloqueCarga);
+				carga.cargador = cargador;
+				cargador.cargar(almacen, carga);
+				vigentes.clear();
+				secuencia = -1;
+			}
+			System.out.println("Punto de control " + secuencia + ": " + cargador.getCargadas()
+					+ " huellas, se releen " + vigentes.size() + " del almacen");
+
+			// Se reproducen solo los cambios posteriores al punto de control
+			for (String clave : vigentes) {
+				try {
+					NBuffer plantilla = origen.leer(clave);
+					if (plantilla != null) {
+						carga.visitar(clave, plantilla, origen.getMarca(clave));
+					}
+				} catch (Exception e) {
+					cargador.registrarFalla(clave, String.valueOf(e.getMessage()));
+				}
+			}
+		}
+
+		carga.enrolar();
+		ultimaCarga = cargador;
+		System.out.println("Carga finalizada: " + carga.identidades.getSiguienteId() + " huellas leidas, "
+				+ cargador.getFallas().size() + " fallidas");
+
+		// Se publica la galeria nueva; los fragmentos anteriores se cierran cuando
+		// terminan las busquedas que ya los estaban usando
+		fragmentos = carga.fragmentos;
+		generacion = new Generacion(fragmentos);
+		synchronized (indices) {
+			identidades = carga.identidades;
+			// Las que no se pudieron enrolar nunca tuvieron nombre en una instantanea
+			for (int id : identidades.tomarLiberados()) {
+				identidades.reciclar(id);
+			}
+			// Los ids liberados de la galeria anterior no existen en la nueva
+			retiradas.clear();
+		}
+		publicar();
+	}
+
+	/** Reparte las huellas leidas entre fragmentos nuevos. Puede recibir huellas desde
+	 *  varios hilos; cada fragmento enrola un bloque apenas junta 'bloqueCarga' huellas */
+	private class Carga implements AlmacenHuellas.Visitante {
+
+		CargadorGaleria cargador;
+		Fragmento[] fragmentos;
+		RegistroIdentidades identidades;
+
+		Carga(CargadorGaleria cargador) {
+			this.cargador = cargador;
+			descartar();
+		}
+
+		public void visitar(String clave, NBuffer plantilla, long marca) {
+			// La lectura de la plantilla se hace fuera del bloqueo
+			NSubject subject = new NSubject();
+			subject.setTemplateBuffer(plantilla);
+
+			int id;
+			synchronized (this) {
+				if (identidades.contiene(clave)) {
+					cargador.registrarFalla(clave, "repetida");
+					return;
+				}
+				id = identidades.agregar(clave, marca);
+			}
+			subject.setId(Integer.toString(id));
+
+			Fragmento fragmento = fragmentos[id % fragmentos.length];
+			if (fragmento.agregarACarga(subject, bloqueCarga)) {
+				descartarFallidos(fragmento.enrolarCarga());
+			}
+		}
+
+		/** Las huellas que no se pudieron enrolar quedan sin nombre */
+		synchronized void descartarFallidos(List<String> ids) {
+			for (String id : ids) {
+				int posicion = Fragmento.id(id);
+				cargador.registrarFalla(identidades.nombre(posicion), "no se pudo enrolar");
+				identidades.liberar(posicion);
+			}
+		}
+
+		synchronized void descartar() {
+			if (fragmentos != null) {
+				for (Fragmento fragmento : fragmentos) fragmento.cerrar();
+			}
+			fragmentos = new Fragmento[Galeria.this.fragmentos.length];
+			for (int i = 0; i < fragmentos.length; i++) {
+				fragmentos[i] = new Fragmento(umbral, maxCandidatos, replicas, hilosMatcher);
+			}
+			identidades = new RegistroIdentidades();
+		}
+
+		/** Se enrolan en paralelo los bloques que quedaron incompletos */
+		void enrolar() throws Exception {
+			ArrayList<Future<List<String>>> pendientes = new ArrayList<Future<List<String>>>();
+			for (final Fragmento fragmento : fragmentos) {
+				pendientes.add(busqueda.submit(new Callable<List<String>>() {
+					public List<String> call() {
+						return fragmento.enrolarCarga();
+					}
+				}));
+			}
+			for (Future<List<String>> pendiente : pendientes) {
+				descartarFallidos(pendiente.get());
+			}
+		}
+	}
+
+
+	/** Entrega cada huella enrolada, con su nombre y marca, tal como la tienen los
+	 *  fragmentos de la instantanea actual. El nombre y la marca salen de la misma
+	 *  instantanea, asi no hace falta tomar los indices */
+	public void exportar(AlmacenHuellas.Visitante visitante) throws Exception {
+		Instantanea vista = tomar();
+		try {
+			for (Fragmento fragmento : vista.cargados) {
+				NSubject[] enrolados = fragmento.listar();
+				try {
+					for (NSubject enrolado : enrolados) {
+						int id = Fragmento.id(enrolado.getId());
+						String nombre = vista.nombre(id);
+						if (nombre != null) {
+							visitante.visitar(nombre, enrolado.getTemplateBuffer(), vista.identidades.marca(id));
+						}
+					}
+				} finally {
+					// Los sujetos listados son copias nativas de esta llamada
+					for (NSubject enrolado : enrolados) {
+						enrolado.dispose();
+					}
+				}
+			}
+		} finally {
+			soltar(vista);
+		}
+	}
+
+
+	/** Enrola una sola huella nueva en la galeria ya cargada, sin releer el directorio.
+	 *  Retorna false si el nombre ya estaba enrolado */
+	public boolean agregar(String nombre, NBuffer plantilla) throws Exception {
+		return agregar(nombre, plantilla, 0);
+	}
+
+	/** Igual que agregar(nombre, plantilla), registrando la fecha de modificacion del archivo.
+	 *  Las huellas que llegan mientras otra escritura tiene el bloqueo se juntan: la
+	 *  primera que lo obtiene enrola todas las pendientes en un solo lote y publica una
+	 *  sola instantanea */
+	public boolean agregar(String nombre, NBuffer plantilla, long marca) throws Exception {
+		Alta alta = new Alta(nombre, plantilla, marca);
+		altas.add(alta);
+		synchronized (this) {
+			if (!alta.atendida) {
+				enrolarAltas();
+			}
+			if (alta.error != null) {
+				throw alta.error;
+			}
+			return alta.enrolada;
+		}
+	}
+
+	/** Enrola en un lote todas las altas pendientes. Se invoca con el bloqueo tomado */
+	private void enrolarAltas() {
+		ArrayList<Alta> lote = new ArrayList<Alta>();
+		ArrayList<String> nombresLote = new ArrayList<String>();
+		ArrayList<NBuffer> plantillas = new ArrayList<NBuffer>();
+		Alta alta;
+		while ((alta = altas.poll()) != null) {
+			lote.add(alta);
+			nombresLote.add(alta.nombre);
+			plantillas.add(alta.plantilla);
+		}
+		long[] marcasLote = new long[lote.size()];
+		for (int i = 0; i < marcasLote.length; i++) {
+			marcasLote[i] = lote.get(i).marca;
+		}
+
+		try {
+			boolean[] enroladas = agregarLote(nombresLote, plantillas, marcasLote);
+			for (int i = 0; i < enroladas.length; i++) {
+				lote.get(i).enrolada = enroladas[i];
+			}
+		} catch (Exception e) {
+			for (Alta fallida : lote) {
+				fallida.error = e;
+			}
+		}
+		for (Alta atendida : lote) {
+			atendida.atendida = true;
+		}
+	}
+
+	/** Enrola varias huellas nuevas con una sola tarea por fragmento; los fragmentos
+	 *  se enrolan en paralelo. Retorna, por huella, si quedo enrolada: un nombre null,
+	 *  vacio o ya enrolado deja solo esa huella sin enrolar */
+	public synchronized boolean[] agregarLote(List<String> nuevos, List<NBuffer> plantillas,
+			long[] marcasNuevas) throws Exception {
+
+		boolean[] enrolados = new boolean[nuevos.size()];
+		int[] ids = new int[enrolados.length];
+		synchronized (indices) {
+			HashSet<String> vistos = new HashSet<String>();
+			for (int i = 0; i < ids.length; i++) {
+				// Solo reciben id las huellas que se van a enrolar; un nombre vacio solo
+				// descarta su huella, no el lote
+				String nombre = nuevos.get(i);
+				boolean nueva = nombre != null && !nombre.isEmpty() && !identidades.contiene(nombre)
+						&& vistos.add(nombre);
+				ids[i] = nueva ? identidades.reservar() : -1;
+			}
+		}
+		HashSet<Fragmento> tocados = new HashSet<Fragmento>();
+		for (int i = 0; i < ids.length; i++) {
+			if (ids[i] < 0) {
+				continue;
+			}
+			NSubject subject = new NSubject();
+			subject.setTemplateBuffer(plantillas.get(i));
+			subject.setId(Integer.toString(ids[i]));
+			fragmento(ids[i]).agregarACarga(subject, Integer.MAX_VALUE);
+			tocados.add(fragmento(ids[i]));
+			enrolados[i] = true;
+		}
+
+		ArrayList<Future<ArrayList<String>>> pendientes = new ArrayList<Future<ArrayList<String>>>();
+		for (final Fragmento fragmento : tocados) {
+			pendientes.add(busqueda.submit(new Callable<ArrayList<String>>() {
+				public ArrayList<String> call() {
+					return fragmento.enrolarCarga();
+				}
+			}));
+		}
+		ArrayList<String> fallidos = new ArrayList<String>();
+		try {
+			for (Future<ArrayList<String>> pendiente : pendientes) {
+				fallidos.addAll(pendiente.get());
+			}
+		} catch (ExecutionException e) {
+			throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+		}
+
+		// Ya estan en todos los clientes; recien ahora las busquedas pueden verlas
+		synchronized (indices) {
+			// Las fallidas ya se quitaron de los clientes y nunca tuvieron nombre
+			for (String fallido : fallidos) {
+				int id = Fragmento.id(fallido);
+				for (int i = 0; i < ids.length; i++) {
+					if (ids[i] == id) {
+						enrolados[i] = false;
+					}
+				}
+				identidades.reciclar(id);
+			}
+			for (int i = 0; i < enrolados.length; i++) {
+				if (enrolados[i]) {
+					identidades.asignar(ids[i], nuevos.get(i), marcasNuevas[i]);
+				}
+			}
+		}
+		publicar();
+		return enrolados;
+	}
+
+	/** Lee la huella del directorio y la enrola, reemplazando la version anterior si
+	 *  existia. La nueva se enrola con otro id antes de tocar la anterior, y el cambio
+	 *  se publica en una sola instantanea: las busquedas ven una de las dos, nunca
+	 *  ninguna. Si la nueva no se puede enrolar la anterior queda como estaba */
+	public synchronized boolean actualizarArchivo(String nombre) throws Exception {
+		File archivo = new File(path.concat(nombre));
+		long marca = archivo.lastModified();
+		if (getMarca(nombre) == marca) {
+			return false;
+		}
+		NBuffer plantilla = NFile.readAllBytes(archivo.getPath());
+
+		int id;
+		synchronized (indices) {
+			id = identidades.reservar();
+		}
+		NSubject subject = new NSubject();
+		subject.setTemplateBuffer(plantilla);
+		subject.setId(Integer.toString(id));
+		fragmento(id).agregarACarga(subject, Integer.MAX_VALUE);
+		if (!fragmento(id).enrolarCarga().isEmpty()) {
+			synchronized (indices) {
+				identidades.reciclar(id);
+			}
+			System.out.println("No se pudo enrolar la nueva version de " + nombre + ", se mantiene la anterior");
+			return false;
+		}
+
+		int anterior;
+		synchronized (indices) {
+			anterior = identidades.eliminar(nombre);
+			identidades.asignar(id, nombre, marca);
+		}
+		publicar();
+		// Las busquedas que empiecen despues ya no aceptan el id anterior
+		if (anterior >= 0) {
+			fragmento(anterior).eliminar(Collections.singletonList(Integer.toString(anterior)));
+		}
+		return true;
+	}
+
+	/** Quita la huella de la galeria. Retorna false si no estaba enrolada */
+	public boolean eliminar(String nombre) {
+		return eliminarLote(Collections.singletonList(nombre)) > 0;
+	}
+
+	/** Quita varias huellas publicando una sola instantanea, y de cada fragmento con una
+	 *  sola pasada por sus clientes. Retorna cuantas estaban enroladas */
+	public synchronized int eliminarLote(Collection<String> nombres) {
+
+		HashMap<Fragmento, ArrayList<String>> porFragmento = new HashMap<Fragmento, ArrayList<String>>();
+		int eliminadas = 0;
+		synchronized (indices) {
+			for (String nombre : nombres) {
+				int id = identidades.eliminar(nombre);
+				if (id < 0) {
+					continue;
+				}
+				ArrayList<String> ids = porFragmento.get(fragmento(id));
+				if (ids == null) {
+					ids = new ArrayList<String>();
+					porFragmento.put(fragmento(id), ids);
+				}
+				ids.add(Integer.toString(id));
+				eliminadas++;
+			}
+		}
+		if (eliminadas == 0) {
+			return 0;
+		}
+		// Se publica antes de quitarlas de los clientes: las busquedas que empiecen
+		// despues ya no aceptan estos ids
+		publicar();
+		for (Map.Entry<Fragmento, ArrayList<String>> entrada : porFragmento.entrySet()) {
+			entrada.getKey().eliminar(entrada.getValue());
+		}
+		return eliminadas;
+	}
+
+
+	/** Compara la huella solo contra las huellas enroladas con el nombre de la persona
+	 *  (comparacion 1:1). Retorna null si no hay huellas con ese nombre */
+	public ResultadoVerificacion verificar(String persona, NSubject subject) throws Exception {
+
+		Instantanea vista = tomar();
+		try {
+			int[] ids;
+			synchronized (indices) {
+				ids = identidades.idsDePersona(persona);
+			}
+			if (ids == null) {
+				return null;
+			}
+
+			NBuffer plantilla = subject.getTemplateBuffer();
+			int mejorPuntaje = 0;
+			boolean alguna = false;
+			for (int id : ids) {
+				Fragmento fragmento = vista.fragmentos[id % vista.fragmentos.length];
+				if (!persona.equals(vista.persona(id)) || fragmento == null) {
+					// Se enrolo despues de tomar la instantanea
+					continue;
+				}
+				alguna = true;
+				mejorPuntaje = Math.max(mejorPuntaje, fragmento.verificar(plantilla, Integer.toString(id)));
+			}
+			if (!alguna) {
+				return null;
+			}
+			return new ResultadoVerificacion(persona, mejorPuntaje, mejorPuntaje >= umbral);
+		} finally {
+			soltar(vista);
+		}
+	}
+
+
+	/** Compara la huella contra todos los fragmentos en paralelo.
+	 *  Retorna la persona de la huella con mayor puntaje, o null si ninguna coincide */
+	public String identificar(NSubject subject) throws Exception {
+		Instantanea vista = tomar();
+		try {
+			return mejor(vista, buscar(vista, subject.getTemplateBuffer())).getNombre();
+		} finally {
+			soltar(vista);
+		}
+	}
+
+	/** Modo rapido: recorre los fragmentos uno por uno, empezando por los que mas
+	 *  coincidencias han dado, y se detiene en la primera huella que alcance
+	 *  'puntajeMinimo'. Retorna su persona, o null si ninguna lo alcanza */
+	public String identificarPrimera(NSubject subject, int puntajeMinimo) throws Exception {
+
+		Instantanea vista = tomar();
+		try {
+			if (vista.cantidad == 0) {
+				return null;
+			}
+			Fragmento[] actuales = vista.fragmentos;
+			Integer[] orden = new Integer[actuales.length];
+			final int[] conteo = new int[actuales.length];
+			for (int i = 0; i < orden.length; i++) {
+				orden[i] = i;
+				conteo[i] = aciertos.get(i);
+			}
+			Arrays.sort(orden, new Comparator<Integer>() {
+				public int compare(Integer a, Integer b) {
+					return conteo[a] > conteo[b] ? -1 : (conteo[a] == conteo[b] ? 0 : 1);
+				}
+			});
+
+			NBuffer plantilla = subject.getTemplateBuffer();
+			for (int posicion : orden) {
+				if (actuales[posicion] == null) {
+					continue;
+				}
+				int id = actuales[posicion].identificarPrimera(plantilla, puntajeMinimo);
+				String persona = vista.persona(id);
+				if (persona == null && id != -1) {
+					// La primera huella del motor no esta en la instantanea (se borro o se
+					// enrolo despues); se repite el fragmento completo para no perder otra
+					persona = primeraEnVista(vista, actuales[posicion], plantilla, Math.max(umbral, puntajeMinimo));
+				}
+				if (persona != null) {
+					aciertos.incrementAndGet(posicion);
+					return persona;
+				}
+			}
+			return null;
+		} finally {
+			soltar(vista);
+		}
+	}
+
+	/** Persona de la huella de mayor puntaje del fragmento que este en la instantanea y
+	 *  alcance 'puntajeMinimo', o null */
+	private static String primeraEnVista(Instantanea vista, Fragmento fragmento, NBuffer plantilla,
+			int puntajeMinimo) throws Exception {
+		Fragmento.Coincidencias coincidencias = fragmento.identificar(plantilla);
+		String persona = null;
+		int mejorPuntaje = -1;
+		for (int i = 0; i < coincidencias.cantidad; i++) {
+			String candidata = vista.persona(coincidencias.ids[i]);
+			int puntaje = coincidencias.puntajes[i];
+			if (candidata != null && puntaje >= puntajeMinimo && puntaje > mejorPuntaje) {
+				persona = candidata;
+				mejorPuntaje = puntaje;
+			}
+		}
+		return persona;
+	}
+
+	/** Los 'k' candidatos de mayor puntaje, ordenados de mayor a menor. Cada persona
+	 *  aparece una sola vez, con el mejor puntaje de sus huellas.
+	 *  Cada fragmento entrega un maximo de huellas, no de personas: si varias huellas de
+	 *  una misma persona llenan ese maximo y faltan personas, se repite la busqueda
+	 *  pidiendo el doble a cada fragmento */
+	public ArrayList<Candidato> candidatos(NSubject subject, int k) throws Exception {
+
+		Instantanea vista = tomar();
+		try {
+			NBuffer plantilla = subject.getTemplateBuffer();
+			int porFragmento = Math.max(k, maxCandidatos);
+			while (true) {
+				Fragmento.Coincidencias coincidencias = buscar(vista, plantilla, porFragmento);
+				coincidencias.ordenarPorPuntaje();
+
+				ArrayList<Candidato> candidatos = new ArrayList<Candidato>(Math.min(k, coincidencias.cantidad));
+				HashSet<String> incluidas = new HashSet<String>();
+				for (int i = 0; i < coincidencias.cantidad && candidatos.size() < k; i++) {
+					String persona = vista.persona(coincidencias.ids[i]);
+					if (persona != null && incluidas.add(persona)) {
+						candidatos.add(new Candidato(persona, coincidencias.puntajes[i]));
+					}
+				}
+				// Con menos coincidencias que el maximo ningun fragmento se quedo corto
+				if (candidatos.size() >= k || coincidencias.cantidad < porFragmento || porFragmento >= vista.cantidad) {
+					return candidatos;
+				}
+				porFragmento = (int) Math.min((long) porFragmento * 2, vista.cantidad);
+			}
+		} finally {
+			soltar(vista);
+		}
+	}
+
+	/** Coincidencias de la plantilla en todos los fragmentos de la instantanea, sin orden */
+	private Fragmento.Coincidencias buscar(Instantanea vista, NBuffer plantilla) throws Exception {
+		return buscar(vista, plantilla, maxCandidatos);
+	}
+
+	/** Igual que buscar(vista, plantilla), con hasta 'porFragmento' coincidencias de cada fragmento */
+	private Fragmento.Coincidencias buscar(Instantanea vista, final NBuffer plantilla, final int porFragmento)
+			throws Exception {
+
+		if (vista.cantidad == 0) {
+			return new Fragmento.Coincidencias(0);
+		}
+		Fragmento[] actuales = vista.cargados;
+		if (actuales.length == 1) {
+			return actuales[0].identificar(plantilla, porFragmento);
+		}
+
+		// Se reparte la busqueda y luego se juntan los candidatos de cada fragmento
+		ArrayList<Future<Fragmento.Coincidencias>> parciales = new ArrayList<Future<Fragmento.Coincidencias>>();
+		for (final Fragmento fragmento : actuales) {
+			parciales.add(busqueda.submit(new Callable<Fragmento.Coincidencias>() {
+				public Fragmento.Coincidencias call() throws Exception {
+					return fragmento.identificar(plantilla, porFragmento);
+				}
+			}));
+		}
+		Fragmento.Coincidencias coincidencias = new Fragmento.Coincidencias(
+				(int) Math.min((long) porFragmento * actuales.length, vista.cantidad));
+		try {
+			for (Future<Fragmento.Coincidencias> parcial : parciales) {
+				coincidencias.agregarTodas(parcial.get());
+			}
+		} catch (ExecutionException e) {
+			throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+		}
+		return coincidencias;
+	}
+
+	/** Identifica un lote de huellas en una sola pasada: cada fragmento compara todas
+	 *  las huellas del lote en una misma tarea. Retorna un resultado por huella, en el
+	 *  mismo orden; el error de una huella no afecta al resto del lote */
+	public ResultadoIdentificacion[] identificarLote(final List<NBuffer> plantillas) throws Exception {
+
+		ResultadoIdentificacion[] resultados = new ResultadoIdentificacion[plantillas.size()];
+		Instantanea vista = tomar();
+		try {
+			Fragmento[] actuales = vista.cantidad == 0 ? new Fragmento[0] : vista.cargados;
+
+			// Por fragmento: las coincidencias de cada huella, o el error que produjo
+			ArrayList<Object[]> porFragmento = new ArrayList<Object[]>(actuales.length);
+			ArrayList<Future<Object[]>> parciales = new ArrayList<Future<Object[]>>();
+			for (final Fragmento fragmento : actuales) {
+				Callable<Object[]> tarea = new Callable<Object[]>() {
+					public Object[] call() {
+						Object[] porHuella = new Object[plantillas.size()];
+						for (int i = 0; i < porHuella.length; i++) {
+							try {
+								porHuella[i] = fragmento.identificar(plantillas.get(i));
+							} catch (Exception e) {
+								porHuella[i] = e;
+							}
+						}
+						return porHuella;
+					}
+				};
+				if (actuales.length == 1) {
+					porFragmento.add(tarea.call());
+				}
+				else {
+					parciales.add(busqueda.submit(tarea));
+				}
+			}
+
+			try {
+				for (Future<Object[]> parcial : parciales) {
+					porFragmento.add(parcial.get());
+				}
+			} catch (ExecutionException e) {
+				throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+			}
+
+			for (int i = 0; i < resultados.length; i++) {
+				Fragmento.Coincidencias coincidencias = new Fragmento.Coincidencias(maxCandidatos * porFragmento.size());
+				String error = null;
+				for (Object[] porHuella : porFragmento) {
+					if (porHuella[i] instanceof Exception) {
+						error = ((Exception) porHuella[i]).getMessage();
+						break;
+					}
+					coincidencias.agregarTodas((Fragmento.Coincidencias) porHuella[i]);
+				}
+				resultados[i] = error != null ? new ResultadoIdentificacion(null, 0, error) : mejor(vista, coincidencias);
+			}
+			return resultados;
+		} finally {
+			soltar(vista);
+		}
+	}
+
+	/** Persona de la coincidencia de mayor puntaje con nombre en la instantanea, con
+	 *  nombre null si no hay ninguna */
+	private static ResultadoIdentificacion mejor(Instantanea vista, Fragmento.Coincidencias coincidencias) {
+		String encontrado = null;
+		int mejorPuntaje = -1;
+		for (int i = 0; i < coincidencias.cantidad; i++) {
+			if (coincidencias.puntajes[i] > mejorPuntaje) {
+				String persona = vista.persona(coincidencias.ids[i]);
+				if (persona != null) {
+					encontrado = persona;
+					mejorPuntaje = coincidencias.puntajes[i];
+				}
+			}
+		}
+		return new ResultadoIdentificacion(encontrado, Math.max(0, mejorPuntaje), null);
+	}
+
+
+	/** Nombre de la persona a partir del nombre de archivo: lo que sigue al primer '-' */
+	public static String persona(String nombre) {
+		return nombre.substring(nombre.indexOf('-') + 1);
+	}
+
+	/** Arma la instantanea con el estado actual y la publica. Se invoca con el bloqueo
+	 *  tomado, despues de que los clientes ya tienen las huellas nuevas.
+	 *  Los ids liberados desde la publicacion anterior quedan con la instantanea que se
+	 *  reemplaza; se reciclan en una publicacion posterior, cuando ni ella ni ninguna
+	 *  anterior sigue en uso */
+	private void publicar() {
+		RegistroIdentidades.Copia copia;
+		int cantidad;
+		int[] liberados;
+		synchronized (indices) {
+			while (!retiradas.isEmpty() && retiradas.peekFirst().liberada()) {
+				for (int id : retiradas.pollFirst().liberados) {
+					identidades.reciclar(id);
+				}
+			}
+			copia = identidades.copia();
+			cantidad = identidades.getCantidad();
+			liberados = identidades.tomarLiberados();
+		}
+		generacion.instantaneas.incrementAndGet();
+		Instantanea anterior = actual;
+		actual = new Instantanea(fragmentos.clone(), fragmentosCargados(), copia, generacion, cantidad, ++version);
+		if (anterior != null) {
+			anterior.liberados = liberados;
+			retiradas.addLast(anterior);
+			anterior.soltar();
+		}
+	}
+
+	/** La instantanea actual reservada; hay que liberarla con soltar() al terminar la
+	 *  busqueda */
+	private Instantanea tomar() {
+		while (true) {
+			Instantanea vista = actual;
+			if (vista.tomar()) {
+				return vista;
+			}
+			// Se publico otra y nadie mas la usaba; 'actual' ya es la nueva
+		}
+	}
+
+	private static void soltar(Instantanea vista) {
+		vista.soltar();
+	}
+
+	/** Fragmentos que ya tienen un cliente creado */
+	private Fragmento[] fragmentosCargados() {
+		ArrayList<Fragmento> cargados = new ArrayList<Fragmento>(fragmentos.length);
+		for (Fragmento fragmento : fragmentos) {
+			if (fragmento != null) cargados.add(fragmento);
+		}
+		return cargados.toArray(new Fragmento[cargados.size()]);
+	}
+
+	private Fragmento fragmento(int id) {
+		if (fragmentos[id % fragmentos.length] == null) {
+			fragmentos[id % fragmentos.length] = new Fragmento(umbral, maxCandidatos, replicas, hilosMatcher);
+		}
+		return fragmentos[id % fragmentos.length];
+	}
+}
@@ -0,0 +1,34 @@
+package local;
+
+
+/** Huella a guardar en un lote: nombre de la persona y plantilla */
+public class HuellaNueva {
+
+	private String nombre;		/** Nombre de la persona */
+	private byte[] huella;		/** Plantilla de la huella */
+
+
+	public HuellaNueva() {
+	}
+
+	public HuellaNueva(String nombre, byte[] huella) {
+		this.nombre = nombre;
+		this.huella = huella;
+	}
+
+	public String getNombre() {
+		return nombre;
+	}
+
+	public void setNombre(String nombre) {
+		this.nombre = nombre;
+	}
+
+	public byte[] getHuella() {
+		return huella;
+	}
+
+	public void setHuella(byte[] huella) {
+		this.huella = huella;
+	}
+}
@@ -24,6 +24,7 @@ public final class IdentifyFinger {
 	private String path;
 	private NSubject subject;
 	private int posicion=-1;
+	private int umbral=40;
 
 	
 	public String getSubjectIdentify() {
@@ -66,6 +67,14 @@ public final class IdentifyFinger {
 		this.posicion = posicion;
 	}
 
+	public int getUmbral() {
+		return umbral;
+	}
+
+	public void setUmbral(int umbral) {
+		this.umbral = umbral;
+	}
+
 	public void identify() throws Throwable{
 		
 
@@ -90,7 +99,7 @@ public final class IdentifyFinger {
 			System.exit(-1);
 		}
 
-		biometricClient.setMatchingThreshold(40);
+		biometricClient.setMatchingThreshold(umbral);
 
 		biometricClient.setMatchingWithDetails(true);
 
@@ -102,9 +111,14 @@ public final class IdentifyFinger {
 		}
 
 		if (status == NBiometricStatus.OK) {
+			// Se conserva la coincidencia de mayor puntaje
+			int mejorPuntaje = -1;
 			for (NMatchingResult matchingResult : subject.getMatchingResults()) {
 				
-				matchingResult.getId().toString().length();
+				if (matchingResult.getScore() <= mejorPuntaje) {
+					continue;
+				}
+				mejorPuntaje = matchingResult.getScore();
 				//System.out.println("\nPosicion del elemento Match: "+matchingResult.getId());
 				posicion = Integer.parseInt(matchingResult.getId());
 				//System.out.println("El elemento match es: "+path.get(posicion));
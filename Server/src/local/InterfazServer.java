@@ -13,9 +13,11 @@ import com.neurotec.biometrics.NSubject;
 public class InterfazServer{
 
 	private static String directorio;	/** Directorio donde se almacenan las huellas */
-	private static String mensaje; 		/** Mensaje con el resultado de las operacion */
+	private static int umbral = 40;		/** Umbral de coincidencia ('umbral' de la configuracion) */
+	private static RegistroOperaciones registro = new RegistroOperaciones(100);	/** Resultados de las ultimas operaciones */
 	private Licencias licencia = null;	/** Clase para las Licencias */
 	private Mapeador mapeador;			/** Mapeador de las instrucciones */
+	private String mensaje;				/** Mensaje de la ultima operacion de esta instancia */
 	
 	private ArrayList<String> listaHuellas;		// Lista de los nombres de archivos
 	File f;
@@ -36,10 +38,32 @@ public class InterfazServer{
 		this.licencia = licencia;
 	}
 
+	/** Mensaje con el resultado de la ultima operacion de esta instancia; el registro
+	 *  es compartido y puede tener operaciones posteriores de otras */
 	public String getMensaje() {
 		return mensaje;
 	}
 
+	public RegistroOperaciones getRegistro() {
+		return registro;
+	}
+
+	private static void registrar(String texto) {
+		registro.registrar("interfaz", texto);
+	}
+
+	/** Registra el resultado de una operacion de esta instancia */
+	private void informar(String texto) {
+		mensaje = texto;
+		registrar(texto);
+	}
+
+	/** Registra el error y retorna la excepcion a lanzar, solo con el mensaje de esta operacion */
+	private Exception error(String texto) {
+		informar(texto);
+		return new Exception(texto);
+	}
+
 	public String getDirectorio() {
 		return directorio;
 	}
@@ -63,11 +87,11 @@ public class InterfazServer{
 			
 		} catch (IOException e) {
 			//e.printStackTrace();
-			mensaje = "No se ha ejecutado el activador";
+			informar("No se ha ejecutado el activador");
 			return -1;
 		} catch (TimeoutException e) {
 			//e.printStackTrace();
-			mensaje = "No hay conexion para la obtencion de licencias";
+			informar("No hay conexion para la obtencion de licencias");
 			return -1;
 		}
 	}
@@ -115,13 +139,13 @@ public class InterfazServer{
 	
 		// Se inicia el proceso de guardado
 		if(this.mapeador.manejador("guardar")){			
-			mensaje = "Huella creada en: "+this.getDirectorio()
-					+ " con el nombre "+ nomFinal;
+			informar("Huella creada en: "+this.getDirectorio()
+					+ " con el nombre "+ nomFinal);
 			return 0;	
 		}
 		else{
-			mensaje = "Problema con el nombre con "
-					+ "que se guarda o la ruta donde se guarda";
+			informar("Problema con el nombre con "
+					+ "que se guarda o la ruta donde se guarda");
 			return -1;
 		}		
 	}
@@ -133,11 +157,11 @@ public class InterfazServer{
 		mapeador.setPathRead(path);
 		
 		if (mapeador.manejador("leerArchivo")){
-			mensaje = "La huella se leyo correctamente";
+			informar("La huella se leyo correctamente");
 			return 0;
 		}
-		mensaje = "Problema con la lectura de archivo. "
-				+ "La ruta o el nombre de la huella de entrada es invalido";
+		informar("Problema con la lectura de archivo. "
+				+ "La ruta o el nombre de la huella de entrada es invalido");
 		return -1;
 	}
 	
@@ -150,18 +174,15 @@ public class InterfazServer{
 		cargarArchivos();
 		aux2 = identify(listaHuellas);
 		if (aux2 == -1){
-			mensaje = "Aun no se ha leido huella desde el lector";
-			throw new Exception(mensaje);
+			throw error("Aun no se ha leido huella desde el lector");
 		}
 		if (aux2 == -2){			
 			if(!f.exists()){
-				mensaje = "Directorio no existe";
-				throw new Exception(mensaje);
+				throw error("Directorio no existe");
 				//return -2;				
 			}
 			else{
-				mensaje = "Ninguna huella hace match";
-				throw new Exception(mensaje);				
+				throw error("Ninguna huella hace match");				
 			}
 		}		
 		
@@ -171,12 +192,11 @@ public class InterfazServer{
 		
 		try {
 			int posCaracter = nomHuellaFile.indexOf('-')+1;		
-			mensaje = "Usted es: " + nomHuellaFile.substring(posCaracter);
+			informar("Usted es: " + nomHuellaFile.substring(posCaracter));
 			return nomHuellaFile.substring(posCaracter);
 		} catch (Exception e) {
 			// TODO: handle exception
-			mensaje = "Problemas con formato del nombre de la huella";
-			throw new Exception(mensaje);
+			throw error("Problemas con formato del nombre de la huella");
 		}		
 	}
 	
@@ -186,6 +206,7 @@ public class InterfazServer{
 		int aux;
 		mapeador.fingers = huellas;
 		mapeador.setPath(directorio);;
+		mapeador.getIdentifyFinger().setUmbral(umbral);
 
 		mapeador.manejador("identificar");
 		aux = mapeador.getIdentifyFinger().getPosicion();
@@ -209,13 +230,19 @@ public class InterfazServer{
 	        String buffer = propiedades.getProperty("directorio");
 	        directorio = buffer;
 	        System.out.println(buffer);
+
+	        try {
+	        	umbral = Integer.parseInt(propiedades.getProperty("umbral", "40").trim());
+	        } catch (NumberFormatException e) {
+	        	registrar("Umbral invalido en la configuracion, se usa " + umbral);
+	        }
  	        
 	        res = 0;
-	        mensaje = "Las configuraciones han sido leidas correctamente";
+	        registrar("Las configuraciones han sido leidas correctamente");
 
 	    } catch (IOException ex) {
 	        ex.printStackTrace();
-	        mensaje = "Problema con la lectura del archivo de configuracion";
+	        registrar("Problema con la lectura del archivo de configuracion");
 	        res = -1;
 	    } finally {
 	        if (entrada != null) {
@@ -223,8 +250,8 @@ public class InterfazServer{
 	                entrada.close();
 	            } catch (IOException e) {
 	                e.printStackTrace();
-	                mensaje = "Problema con la lectura del archivo de configuracion. "
-	                		+ "Tampoco puede cerrarse";
+	                registrar("Problema con la lectura del archivo de configuracion. "
+	                		+ "Tampoco puede cerrarse");
 	                res = -2;
 	            }
 	        }
@@ -0,0 +1,48 @@
+package local;
+
+import com.neurotec.io.NBuffer;
+
+
+/** Copia las plantillas del directorio de huellas (un archivo por plantilla)
+ *  a un almacen de segmentos. Los archivos originales no se modifican.
+ *
+ *  Uso: MigradorAlmacen directorioHuellas directorioSegmentos [tamanoSegmentoMB] */
+public class MigradorAlmacen {
+
+	public static void main(String[] args) throws Exception {
+
+		if (args.length < 2) {
+			System.out.println("Uso: MigradorAlmacen directorioHuellas directorioSegmentos [tamanoSegmentoMB]");
+			return;
+		}
+
+		String origen = args[0].endsWith("/") ? args[0] : args[0].concat("/");
+		long tamano = (args.length > 2 ? Long.parseLong(args[2]) : 64) * 1024 * 1024;
+
+		AlmacenArchivos archivos = new AlmacenArchivos(origen);
+		final AlmacenSegmentos segmentos = new AlmacenSegmentos(args[1], tamano, false);
+		final int[] cuenta = new int[2];
+
+		try {
+			archivos.recorrer(new AlmacenHuellas.Visitante() {
+				public void visitar(String clave, NBuffer plantilla, long marca) throws Exception {
+					cuenta[0]++;
+					if (segmentos.contiene(clave)) {
+						// Ya migrada en una corrida anterior
+						cuenta[1]++;
+						return;
+					}
+					segmentos.guardar(clave, plantilla);
+					if (cuenta[0] % 1000 == 0) {
+						System.out.println("Migradas " + cuenta[0] + " huellas...");
+					}
+				}
+			});
+		} finally {
+			segmentos.cerrar();
+		}
+
+		System.out.println("Huellas leidas: " + cuenta[0] + ", ya existentes: " + cuenta[1]
+				+ ", total en el almacen: " + segmentos.getCantidad());
+	}
+}
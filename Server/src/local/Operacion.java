@@ -0,0 +1,78 @@
+package local;
+
+
+/** Registro de una operacion terminada, ver RegistroOperaciones */
+public class Operacion {
+
+	private long numero;			/** Orden de la operacion desde que inicio el proceso, empieza en 1 */
+	private long fecha;				/** Milisegundos desde 1970 al terminar */
+	private String nombre;			/** Operacion realizada */
+	private String mensaje;			/** Resultado de la operacion */
+	private long duracion;			/** Milisegundos que tomo */
+	private boolean error;			/** La operacion fallo */
+
+
+	public Operacion() {
+	}
+
+	public Operacion(long numero, long fecha, String nombre, String mensaje, long duracion, boolean error) {
+		this.numero = numero;
+		this.fecha = fecha;
+		this.nombre = nombre;
+		this.mensaje = mensaje;
+		this.duracion = duracion;
+		this.error = error;
+	}
+
+	public long getNumero() {
+		return numero;
+	}
+
+	public void setNumero(long numero) {
+		this.numero = numero;
+	}
+
+	public long getFecha() {
+		return fecha;
+	}
+
+	public void setFecha(long fecha) {
+		this.fecha = fecha;
+	}
+
+	public String getNombre() {
+		return nombre;
+	}
+
+	public void setNombre(String nombre) {
+		this.nombre = nombre;
+	}
+
+	public String getMensaje() {
+		return mensaje;
+	}
+
+	public void setMensaje(String mensaje) {
+		this.mensaje = mensaje;
+	}
+
+	public long getDuracion() {
+		return duracion;
+	}
+
+	public void setDuracion(long duracion) {
+		this.duracion = duracion;
+	}
+
+	public boolean isError() {
+		return error;
+	}
+
+	public void setError(boolean error) {
+		this.error = error;
+	}
+
+	public String toString() {
+		return numero + " " + nombre + (error ? " [error]" : "") + ": " + mensaje;
+	}
+}
@@ -0,0 +1,37 @@
+package local;
+
+import java.util.ArrayList;
+
+
+/** Una pagina del listado de huellas enroladas, en orden alfabetico */
+public class PaginaHuellas {
+
+	private ArrayList<String> nombres;	/** Nombres de archivo de esta pagina */
+	private String cursor;				/** Se envia para pedir la pagina siguiente, null si no hay mas */
+
+
+	public PaginaHuellas() {
+		this.nombres = new ArrayList<String>();
+	}
+
+	public PaginaHuellas(ArrayList<String> nombres, String cursor) {
+		this.nombres = nombres;
+		this.cursor = cursor;
+	}
+
+	public ArrayList<String> getNombres() {
+		return nombres;
+	}
+
+	public void setNombres(ArrayList<String> nombres) {
+		this.nombres = nombres;
+	}
+
+	public String getCursor() {
+		return cursor;
+	}
+
+	public void setCursor(String cursor) {
+		this.cursor = cursor;
+	}
+}
@@ -0,0 +1,160 @@
+package local;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.neurotec.biometrics.client.NBiometricClient;
+
+
+/** Grupo acotado de clientes de comparacion ya configurados (umbral, detalles, hilos),
+ *  creados una sola vez. Cada busqueda toma un cliente, lo usa sin bloquear a las
+ *  demas y lo devuelve. Todos los clientes tienen las mismas huellas enroladas: una
+ *  escritura toma los clientes de a uno, por su posicion, y la aplica en cada uno;
+ *  mientras tanto las busquedas siguen con los demas */
+class PoolMatchers {
+
+	private NBiometricClient[] clientes;		/** Todos los clientes del pool */
+	private boolean[] prestados;				/** Clientes en uso, protegidos por el bloqueo del pool */
+	private int reservado = -1;					/** Cliente que espera una escritura, las busquedas no lo toman */
+	private boolean cerrado;					/** Ya no se prestan clientes */
+
+	private AtomicLong prestamos = new AtomicLong();	/** Prestamos atendidos */
+	private AtomicLong esperaTotal = new AtomicLong();	/** Nanosegundos esperando un cliente */
+	private AtomicLong esperaMaxima = new AtomicLong();	/** Mayor espera de un prestamo */
+
+
+	/** 'hilos': hilos de cada cliente, 0 deja el valor por defecto del motor */
+	PoolMatchers(int cantidad, int umbral, int maximoResultados, int hilos) {
+		clientes = new NBiometricClient[Math.max(1, cantidad)];
+		prestados = new boolean[clientes.length];
+		for (int i = 0; i < clientes.length; i++) {
+			clientes[i] = new NBiometricClient();
+			clientes[i].setMatchingThreshold(umbral);
+			clientes[i].setMatchingWithDetails(true);
+			clientes[i].setMatchingMaximalResultCount(maximoResultados);
+			if (hilos > 0) {
+				clientes[i].setMaximalThreadCount(hilos);
+			}
+		}
+	}
+
+	int getCantidad() {
+		return clientes.length;
+	}
+
+
+	/** Toma un cliente libre para una busqueda, esperando si todos estan prestados.
+	 *  Lanza IllegalStateException si el pool ya se cerro */
+	NBiometricClient prestar() throws InterruptedException {
+		long inicio = 0;
+		int libre;
+		synchronized (this) {
+			libre = libre();
+			if (libre < 0) {
+				inicio = System.nanoTime();
+				while ((libre = libre()) < 0) {
+					wait();
+				}
+			}
+			prestados[libre] = true;
+		}
+		if (inicio != 0) {
+			registrarEspera(System.nanoTime() - inicio);
+		}
+		prestamos.incrementAndGet();
+		return clientes[libre];
+	}
+
+	/** Toma el cliente de la posicion 'indice' para una escritura, esperando a que lo
+	 *  devuelva la busqueda que lo use. Solo un hilo a la vez puede escribir (el
+	 *  Fragmento lo hace bajo su bloqueo). No se interrumpe: una escritura no puede
+	 *  quedar a medias */
+	NBiometricClient prestar(int indice) {
+		long inicio = System.nanoTime();
+		boolean interrumpido = false;
+		synchronized (this) {
+			reservado = indice;
+			while (prestados[indice]) {
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					interrumpido = true;
+				}
+			}
+			prestados[indice] = true;
+			reservado = -1;
+		}
+		if (interrumpido) {
+			Thread.currentThread().interrupt();
+		}
+		registrarEspera(System.nanoTime() - inicio);
+		return clientes[indice];
+	}
+
+	synchronized void devolver(NBiometricClient cliente) {
+		for (int i = 0; i < clientes.length; i++) {
+			if (clientes[i] == cliente) {
+				prestados[i] = false;
+			}
+		}
+		notifyAll();
+	}
+
+	/** Posicion de un cliente que puede tomar una busqueda, -1 si no hay */
+	private int libre() {
+		if (cerrado) {
+			throw new IllegalStateException("Los clientes de comparacion se cerraron");
+		}
+		for (int i = 0; i < clientes.length; i++) {
+			if (!prestados[i] && i != reservado) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+
+	private void registrarEspera(long nanos) {
+		esperaTotal.addAndGet(nanos);
+		long maxima = esperaMaxima.get();
+		while (nanos > maxima && !esperaMaxima.compareAndSet(maxima, nanos)) {
+			maxima = esperaMaxima.get();
+		}
+	}
+
+	long getPrestamos() {
+		return prestamos.get();
+	}
+
+	/** Nanosegundos esperando clientes, sumando todos los prestamos */
+	long getEsperaTotal() {
+		return esperaTotal.get();
+	}
+
+	long getEsperaMaxima() {
+		return esperaMaxima.get();
+	}
+
+
+	/** Deja de prestar clientes, espera a que terminen las busquedas en curso y libera
+	 *  los clientes */
+	synchronized void cerrar() {
+		cerrado = true;
+		notifyAll();
+		boolean interrumpido = false;
+		for (int i = 0; i < clientes.length; i++) {
+			while (prestados[i]) {
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					interrumpido = true;
+				}
+			}
+		}
+		for (NBiometricClient cliente : clientes) {
+			cliente.dispose();
+		}
+		if (interrumpido) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
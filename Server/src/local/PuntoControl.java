@@ -0,0 +1,131 @@
+package local;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+import com.neurotec.io.NBuffer;
+
+
+/** Punto de control de la galeria: todas las plantillas enroladas con su nombre y
+ *  marca, en un unico archivo que se lee de forma secuencial al reiniciar.
+ *
+ *  Formato: [int firma][long secuencia][int cantidad] y por cada huella
+ *  [short largoNombre][nombre][long marca][int largoPlantilla][plantilla].
+ *  'secuencia' es la mayor marca incluida */
+public class PuntoControl {
+
+	private static final int FIRMA = 0x48434b31;		/** "HCK1" */
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private File archivo;			/** Archivo del punto de control */
+	private long versionEscrita = -1;	/** Version de la galeria del ultimo punto escrito */
+
+
+	public PuntoControl(String ruta) {
+		this.archivo = new File(ruta);
+	}
+
+	public boolean existe() {
+		return archivo.isFile();
+	}
+
+
+	/** Escribe el estado de la galeria si cambio desde el ultimo punto de control.
+	 *  Se escribe en un temporal que luego se renombra, el anterior queda valido
+	 *  hasta el final. Retorna la cantidad de huellas escritas, -1 si no habia cambios */
+	public synchronized int escribir(Galeria galeria) throws Exception {
+		long version = galeria.getVersion();
+		if (version == versionEscrita) {
+			return -1;
+		}
+
+		File temporal = new File(archivo.getPath() + ".tmp");
+		final DataOutputStream salida = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(temporal), 1 << 16));
+		final long[] resumen = new long[2];	/** cantidad, secuencia */
+
+		try {
+			// La cabecera se completa al final, cuando se conocen cantidad y secuencia
+			salida.writeInt(FIRMA);
+			salida.writeLong(0);
+			salida.writeInt(0);
+
+			galeria.exportar(new AlmacenHuellas.Visitante() {
+				public void visitar(String clave, NBuffer plantilla, long marca) throws IOException {
+					byte[] nombre = clave.getBytes(UTF8);
+					byte[] datos = plantilla.toByteArray();
+					salida.writeShort(nombre.length);
+					salida.write(nombre);
+					salida.writeLong(marca);
+					salida.writeInt(datos.length);
+					salida.write(datos);
+					resumen[0]++;
+					resumen[1] = Math.max(resumen[1], marca);
+				}
+			});
+		} finally {
+			salida.close();
+		}
+
+		RandomAccessFile cabecera = new RandomAccessFile(temporal, "rw");
+		try {
+			cabecera.seek(4);
+			cabecera.writeLong(resumen[1]);
+			cabecera.writeInt((int) resumen[0]);
+			cabecera.getFD().sync();
+		} finally {
+			cabecera.close();
+		}
+
+		if (!temporal.renameTo(archivo)) {
+			archivo.delete();
+			if (!temporal.renameTo(archivo)) {
+				throw new IOException("No se pudo reemplazar el punto de control " + archivo);
+			}
+		}
+		versionEscrita = version;
+		return (int) resumen[0];
+	}
+
+
+	/** Entrega las huellas del punto de control leyendo el archivo mapeado en memoria.
+	 *  Retorna la secuencia con la que fue escrito */
+	public long recorrer(AlmacenHuellas.Visitante visitante) throws Exception {
+		RandomAccessFile entrada = new RandomAccessFile(archivo, "r");
+		MappedByteBuffer mapa;
+		try {
+			FileChannel canal = entrada.getChannel();
+			mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+		} finally {
+			entrada.close();
+		}
+
+		if (mapa.getInt() != FIRMA) {
+			throw new IOException("Punto de control con formato desconocido");
+		}
+		long secuencia = mapa.getLong();
+		int cantidad = mapa.getInt();
+
+		for (int i = 0; i < cantidad; i++) {
+			byte[] nombre = new byte[mapa.getShort() & 0xFFFF];
+			mapa.get(nombre);
+			long marca = mapa.getLong();
+			int largo = mapa.getInt();
+
+			ByteBuffer plantilla = mapa.slice();
+			plantilla.limit(largo);
+			mapa.position(mapa.position() + largo);
+
+			visitante.visitar(new String(nombre, UTF8), NBuffer.fromByteBuffer(plantilla), marca);
+		}
+		return secuencia;
+	}
+}
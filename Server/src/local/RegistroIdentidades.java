@@ -0,0 +1,545 @@
+package local;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+
+/** Identidades enroladas en la galeria. Cada huella recibe un id entero denso; un id
+ *  liberado se vuelve a asignar solo despues de reciclar(), cuando la Galeria sabe que
+ *  ninguna instantanea con su nombre anterior sigue en uso. Su nombre de archivo, el nombre de su persona y su marca se guardan en
+ *  arreglos indexados por id, asi resolver el id de una coincidencia es leer una
+ *  posicion, sin parsear nombres ni crear objetos. La persona se separa del nombre de
+ *  archivo una sola vez, al asignar el id. Los indices nombre -> id y persona -> ids
+ *  usan tablas de direccionamiento abierto; las huellas de una misma persona quedan
+ *  encadenadas por un arreglo de ids.
+ *  Los nombres y las marcas van en bloques de BLOQUE ids que se comparten con las copias publicadas
+ *  (ver copia()): un bloque compartido se duplica recien al modificarlo, asi publicar
+ *  no copia toda la galeria en cada escritura.
+ *  No es seguro entre hilos, la Galeria lo usa bajo su propio bloqueo */
+class RegistroIdentidades {
+
+	private static final int SIN_ID = -1;
+	private static final int TRAMO = 512;	/** Ids por tramo del orden para listar */
+
+	private static final int BITS_BLOQUE = 10;
+	private static final int BLOQUE = 1 << BITS_BLOQUE;	/** Ids por bloque de nombres */
+
+	private String[][] nombres;		/** Nombre de archivo por id, en bloques; null si el id esta libre */
+	private String[][] nombresPersona;	/** Nombre de la persona por id, en bloques; null si el id esta libre */
+	private long[][] marcas;		/** Marca con la que se enrolo cada id, en bloques */
+	private boolean[] compartidos;	/** Bloque que ya esta en una copia: se duplica antes de modificarlo */
+	private int[] siguientePersona;	/** Siguiente id de la misma persona, SIN_ID al final */
+	private int siguienteId;		/** Proximo id a asignar */
+	private int cantidad;			/** Ids con nombre */
+	private TablaIds indice;		/** Nombre de archivo -> id */
+	private TablaIds personas;		/** Nombre de la persona -> primer id de su cadena */
+	private int[] libres;			/** Ids reciclados, listos para reservar() */
+	private int cantidadLibres;
+	private int[] liberados;		/** Ids liberados que aun no se pueden reciclar */
+	private int cantidadLiberados;
+	private Orden orden;			/** Ids por persona y nombre de archivo, para listar por paginas */
+
+
+	RegistroIdentidades() {
+		nombres = new String[0][];
+		nombresPersona = new String[0][];
+		marcas = new long[0][];
+		compartidos = new boolean[0];
+		siguientePersona = new int[64];
+		indice = new TablaIds();
+		personas = new TablaIds();
+		libres = new int[16];
+		liberados = new int[16];
+		orden = new Orden();
+	}
+
+	/** Ids asignados hasta ahora, incluidos los libres */
+	int getSiguienteId() {
+		return siguienteId;
+	}
+
+	/** Huellas enroladas */
+	int getCantidad() {
+		return cantidad;
+	}
+
+	/** Nombre de archivo del id, null si esta libre o no existe */
+	String nombre(int id) {
+		return id >= 0 && id < siguienteId ? nombres[id >>> BITS_BLOQUE][id & (BLOQUE - 1)] : null;
+	}
+
+	/** Nombre de la persona del id, null si esta libre o no existe */
+	String persona(int id) {
+		return id >= 0 && id < siguienteId ? nombresPersona[id >>> BITS_BLOQUE][id & (BLOQUE - 1)] : null;
+	}
+
+	long marca(int id) {
+		return marcas[id >>> BITS_BLOQUE][id & (BLOQUE - 1)];
+	}
+
+	/** Id del nombre de archivo, SIN_ID (-1) si no esta enrolado */
+	int id(String nombre) {
+		return indice.get(nombre);
+	}
+
+	boolean contiene(String nombre) {
+		return indice.get(nombre) != SIN_ID;
+	}
+
+	/** Ids enrolados de la persona, null si no tiene ninguno */
+	int[] idsDePersona(String persona) {
+		int primero = personas.get(persona);
+		if (primero == SIN_ID) {
+			return null;
+		}
+		int total = 0;
+		for (int id = primero; id != SIN_ID; id = siguientePersona[id]) {
+			total++;
+		}
+		int[] ids = new int[total];
+		int i = 0;
+		for (int id = primero; id != SIN_ID; id = siguientePersona[id]) {
+			ids[i++] = id;
+		}
+		return ids;
+	}
+
+	/** Copia de solo lectura de los nombres y marcas por id, hasta el ultimo id asignado. Solo
+	 *  copia los arreglos de bloques; los bloques quedan compartidos hasta la siguiente
+	 *  modificacion de cada uno */
+	Copia copia() {
+		Arrays.fill(compartidos, true);
+		return new Copia(nombres.clone(), nombresPersona.clone(), marcas.clone(), siguienteId);
+	}
+
+	/** Nombres enrolados, en orden de id */
+	ArrayList<String> nombres() {
+		ArrayList<String> copia = new ArrayList<String>(cantidad);
+		for (int id = 0; id < siguienteId; id++) {
+			String nombre = nombre(id);
+			if (nombre != null) {
+				copia.add(nombre);
+			}
+		}
+		return copia;
+	}
+
+
+	/** Reserva un id sin nombre, reciclado si hay alguno; se le asigna con asignar()
+	 *  cuando la huella queda enrolada */
+	int reservar() {
+		if (cantidadLibres > 0) {
+			int id = libres[--cantidadLibres];
+			siguientePersona[id] = SIN_ID;
+			return id;
+		}
+		if (siguienteId == siguientePersona.length) {
+			siguientePersona = Arrays.copyOf(siguientePersona, siguientePersona.length * 2);
+		}
+		if (siguienteId == nombres.length * BLOQUE) {
+			int bloques = nombres.length + 1;
+			nombres = Arrays.copyOf(nombres, bloques);
+			nombresPersona = Arrays.copyOf(nombresPersona, bloques);
+			marcas = Arrays.copyOf(marcas, bloques);
+			compartidos = Arrays.copyOf(compartidos, bloques);
+			nombres[bloques - 1] = new String[BLOQUE];
+			nombresPersona[bloques - 1] = new String[BLOQUE];
+			marcas[bloques - 1] = new long[BLOQUE];
+		}
+		siguientePersona[siguienteId] = SIN_ID;
+		return siguienteId++;
+	}
+
+	/** Da nombre a un id reservado. El nombre no puede estar enrolado con otro id */
+	void asignar(int id, String nombre, long marca) {
+		String persona = Galeria.persona(nombre);
+		fijar(id, nombre, persona, marca);
+		indice.put(nombre, id);
+		orden.agregar(id);
+		cantidad++;
+
+		// Se agrega al inicio de la cadena de la persona
+		siguientePersona[id] = personas.get(persona);
+		personas.put(persona, id);
+	}
+
+	/** Reserva un id y le asigna el nombre. Retorna el id */
+	int agregar(String nombre, long marca) {
+		int id = reservar();
+		asignar(id, nombre, marca);
+		return id;
+	}
+
+	/** Quita el nombre de archivo. Retorna el id que tenia, o SIN_ID (-1) si no estaba */
+	int eliminar(String nombre) {
+		int id = indice.get(nombre);
+		if (id != SIN_ID) {
+			liberar(id);
+		}
+		return id;
+	}
+
+	/** Deja el id sin nombre. No se vuelve a asignar hasta que se lo entregue a
+	 *  reciclar(), ver tomarLiberados() */
+	void liberar(int id) {
+		String nombre = nombre(id);
+		if (nombre == null) {
+			return;
+		}
+		String persona = persona(id);
+		// Se quita del orden mientras aun tiene nombre, el orden lo compara por su nombre
+		orden.quitar(id);
+		fijar(id, null, null, 0);
+		indice.remove(nombre);
+		cantidad--;
+		if (cantidadLiberados == liberados.length) {
+			liberados = Arrays.copyOf(liberados, cantidadLiberados * 2);
+		}
+		liberados[cantidadLiberados++] = id;
+
+		// Se saca de la cadena de la persona
+		int primero = personas.get(persona);
+		if (primero == id) {
+			if (siguientePersona[id] == SIN_ID) {
+				personas.remove(persona);
+			}
+			else {
+				personas.put(persona, siguientePersona[id]);
+			}
+		}
+		else {
+			int anterior = primero;
+			while (anterior != SIN_ID && siguientePersona[anterior] != id) {
+				anterior = siguientePersona[anterior];
+			}
+			if (anterior != SIN_ID) {
+				siguientePersona[anterior] = siguientePersona[id];
+			}
+		}
+		siguientePersona[id] = SIN_ID;
+	}
+
+
+	/** Ids liberados desde la llamada anterior; quedan a cargo de quien los toma */
+	int[] tomarLiberados() {
+		int[] tomados = Arrays.copyOf(liberados, cantidadLiberados);
+		cantidadLiberados = 0;
+		return tomados;
+	}
+
+	/** El id sin nombre se puede volver a asignar. Sirve tanto para un id liberado que
+	 *  ya no aparece en ninguna copia en uso como para uno reservado que no se asigno */
+	void reciclar(int id) {
+		if (cantidadLibres == libres.length) {
+			libres = Arrays.copyOf(libres, cantidadLibres * 2);
+		}
+		libres[cantidadLibres++] = id;
+	}
+
+
+	/** Escribe el nombre, la persona y la marca del id, duplicando antes su bloque si
+	 *  esta en una copia */
+	private void fijar(int id, String nombre, String persona, long marca) {
+		int bloque = id >>> BITS_BLOQUE;
+		if (compartidos[bloque]) {
+			nombres[bloque] = nombres[bloque].clone();
+			nombresPersona[bloque] = nombresPersona[bloque].clone();
+			marcas[bloque] = marcas[bloque].clone();
+			compartidos[bloque] = false;
+		}
+		nombres[bloque][id & (BLOQUE - 1)] = nombre;
+		nombresPersona[bloque][id & (BLOQUE - 1)] = persona;
+		marcas[bloque][id & (BLOQUE - 1)] = marca;
+	}
+
+
+	/** Ver Galeria.listar */
+	PaginaHuellas listar(String cursor, int tamano, String prefijo) {
+		if (prefijo == null) {
+			prefijo = "";
+		}
+		tamano = Math.max(1, tamano);
+		// Se parte del mayor entre el cursor y el prefijo, todo lo anterior queda fuera
+		String desdePersona = prefijo;
+		String desdeNombre = "";
+		boolean incluirDesde = true;
+		if (cursor != null) {
+			String personaCursor = Galeria.persona(cursor);
+			if (comparar(personaCursor, cursor, prefijo, "") >= 0) {
+				desdePersona = personaCursor;
+				desdeNombre = cursor;
+				incluirDesde = false;
+			}
+		}
+
+		ArrayList<String> pagina = new ArrayList<String>(Math.min(tamano, cantidad));
+		String ultimo = null;
+		int tramo = orden.tramo(desdePersona, desdeNombre, incluirDesde);
+		int posicion = tramo < orden.cantidad ? orden.posicion(tramo, desdePersona, desdeNombre, incluirDesde) : 0;
+		for (; tramo < orden.cantidad; tramo++, posicion = 0) {
+			for (; posicion < orden.largos[tramo]; posicion++) {
+				int id = orden.tramos[tramo][posicion];
+				if (!persona(id).startsWith(prefijo)) {
+					// Las personas con el prefijo son contiguas, no quedan mas
+					return new PaginaHuellas(pagina, null);
+				}
+				if (pagina.size() == tamano) {
+					return new PaginaHuellas(pagina, ultimo);
+				}
+				ultimo = nombre(id);
+				pagina.add(ultimo);
+			}
+		}
+		return new PaginaHuellas(pagina, null);
+	}
+
+	/** Las huellas se listan por persona y, dentro de la persona, por nombre de archivo */
+	private static int comparar(String persona, String nombre, String otraPersona, String otroNombre) {
+		int resultado = persona.compareTo(otraPersona);
+		return resultado != 0 ? resultado : nombre.compareTo(otroNombre);
+	}
+
+	/** Compara la persona y el nombre con los del id, que debe tener nombre */
+	private int comparar(String persona, String nombre, int id) {
+		int bloque = id >>> BITS_BLOQUE;
+		return comparar(persona, nombre, nombresPersona[bloque][id & (BLOQUE - 1)],
+				nombres[bloque][id & (BLOQUE - 1)]);
+	}
+
+	/** Ids con nombre ordenados por persona y nombre de archivo, en tramos ordenados de
+	 *  a lo sumo TRAMO ids: un id por entrada, sin objetos ni textos armados, y agregar
+	 *  o quitar solo corre los ids de un tramo */
+	private final class Orden {
+		int[][] tramos = new int[4][];
+		int[] largos = new int[4];
+		int cantidad;		/** Tramos en uso, ninguno vacio */
+
+		/** Primer tramo cuyo ultimo id va despues de la clave (o es la clave, si
+		 *  'incluir'); 'cantidad' si no hay ninguno */
+		int tramo(String persona, String nombre, boolean incluir) {
+			int bajo = 0;
+			int alto = cantidad;
+			while (bajo < alto) {
+				int medio = (bajo + alto) >>> 1;
+				if (antes(persona, nombre, tramos[medio][largos[medio] - 1], incluir)) {
+					alto = medio;
+				}
+				else {
+					bajo = medio + 1;
+				}
+			}
+			return bajo;
+		}
+
+		/** Primera posicion del tramo cuyo id va despues de la clave (o es la clave) */
+		int posicion(int tramo, String persona, String nombre, boolean incluir) {
+			int[] ids = tramos[tramo];
+			int bajo = 0;
+			int alto = largos[tramo];
+			while (bajo < alto) {
+				int medio = (bajo + alto) >>> 1;
+				if (antes(persona, nombre, ids[medio], incluir)) {
+					alto = medio;
+				}
+				else {
+					bajo = medio + 1;
+				}
+			}
+			return bajo;
+		}
+
+		private boolean antes(String persona, String nombre, int id, boolean incluir) {
+			int resultado = comparar(persona, nombre, id);
+			return incluir ? resultado <= 0 : resultado < 0;
+		}
+
+		/** El id ya debe tener nombre */
+		void agregar(int id) {
+			if (cantidad == 0) {
+				tramos[0] = new int[TRAMO];
+				tramos[0][0] = id;
+				largos[0] = 1;
+				cantidad = 1;
+				return;
+			}
+			String persona = persona(id);
+			String nombre = nombre(id);
+			int tramo = Math.min(tramo(persona, nombre, true), cantidad - 1);
+			int posicion = posicion(tramo, persona, nombre, true);
+			int[] ids = tramos[tramo];
+			System.arraycopy(ids, posicion, ids, posicion + 1, largos[tramo] - posicion);
+			ids[posicion] = id;
+			if (++largos[tramo] == TRAMO) {
+				partir(tramo);
+			}
+		}
+
+		/** El id aun debe tener su nombre */
+		void quitar(int id) {
+			String persona = persona(id);
+			String nombre = nombre(id);
+			int tramo = tramo(persona, nombre, true);
+			if (tramo == cantidad) {
+				return;
+			}
+			int posicion = posicion(tramo, persona, nombre, true);
+			int[] ids = tramos[tramo];
+			if (posicion == largos[tramo] || ids[posicion] != id) {
+				return;
+			}
+			System.arraycopy(ids, posicion + 1, ids, posicion, largos[tramo] - posicion - 1);
+			largos[tramo]--;
+			// Se junta con el siguiente para que los tramos no queden casi vacios
+			if (tramo + 1 < cantidad && largos[tramo] + largos[tramo + 1] < TRAMO / 2) {
+				System.arraycopy(tramos[tramo + 1], 0, ids, largos[tramo], largos[tramo + 1]);
+				largos[tramo] += largos[tramo + 1];
+				sacar(tramo + 1);
+			}
+			if (largos[tramo] == 0) {
+				sacar(tramo);
+			}
+		}
+
+		/** Pasa la segunda mitad del tramo lleno a un tramo nuevo a continuacion */
+		private void partir(int tramo) {
+			if (cantidad == tramos.length) {
+				tramos = Arrays.copyOf(tramos, cantidad * 2);
+				largos = Arrays.copyOf(largos, cantidad * 2);
+			}
+			System.arraycopy(tramos, tramo + 1, tramos, tramo + 2, cantidad - tramo - 1);
+			System.arraycopy(largos, tramo + 1, largos, tramo + 2, cantidad - tramo - 1);
+			cantidad++;
+			int mitad = TRAMO / 2;
+			tramos[tramo + 1] = new int[TRAMO];
+			System.arraycopy(tramos[tramo], mitad, tramos[tramo + 1], 0, TRAMO - mitad);
+			largos[tramo + 1] = TRAMO - mitad;
+			largos[tramo] = mitad;
+		}
+
+		private void sacar(int tramo) {
+			System.arraycopy(tramos, tramo + 1, tramos, tramo, cantidad - tramo - 1);
+			System.arraycopy(largos, tramo + 1, largos, tramo, cantidad - tramo - 1);
+			cantidad--;
+			tramos[cantidad] = null;
+		}
+	}
+
+
+	/** Nombres y marcas por id tal como estaban al hacer la copia; no cambia */
+	static final class Copia {
+		private final String[][] nombres;
+		private final String[][] personas;
+		private final long[][] marcas;
+		private final int limite;		/** Ids asignados al hacer la copia */
+
+		private Copia(String[][] nombres, String[][] personas, long[][] marcas, int limite) {
+			this.nombres = nombres;
+			this.personas = personas;
+			this.marcas = marcas;
+			this.limite = limite;
+		}
+
+		/** Nombre de archivo del id, null si estaba libre o no existia */
+		String nombre(int id) {
+			return id >= 0 && id < limite ? nombres[id >>> BITS_BLOQUE][id & (BLOQUE - 1)] : null;
+		}
+
+		/** Nombre de la persona del id, null si estaba libre o no existia */
+		String persona(int id) {
+			return id >= 0 && id < limite ? personas[id >>> BITS_BLOQUE][id & (BLOQUE - 1)] : null;
+		}
+
+		/** Marca con la que se enrolo el id, 0 si estaba libre o no existia */
+		long marca(int id) {
+			return id >= 0 && id < limite ? marcas[id >>> BITS_BLOQUE][id & (BLOQUE - 1)] : 0;
+		}
+	}
+
+
+	/** Tabla texto -> id con sondeo lineal, en dos arreglos paralelos y sin un objeto
+	 *  por entrada. Al borrar se corren hacia atras las entradas siguientes, asi no
+	 *  quedan marcas de borrado que alarguen las busquedas */
+	private static class TablaIds {
+		private String[] claves = new String[16];
+		private int[] valores = new int[16];
+		private int cantidad;
+
+		int get(String clave) {
+			int mascara = claves.length - 1;
+			for (int i = posicion(clave, mascara); claves[i] != null; i = (i + 1) & mascara) {
+				if (claves[i].equals(clave)) {
+					return valores[i];
+				}
+			}
+			return SIN_ID;
+		}
+
+		void put(String clave, int valor) {
+			// Se mantiene a lo sumo medio llena para que los sondeos sean cortos
+			if ((cantidad + 1) * 2 > claves.length) {
+				crecer();
+			}
+			int mascara = claves.length - 1;
+			int i = posicion(clave, mascara);
+			while (claves[i] != null) {
+				if (claves[i].equals(clave)) {
+					valores[i] = valor;
+					return;
+				}
+				i = (i + 1) & mascara;
+			}
+			claves[i] = clave;
+			valores[i] = valor;
+			cantidad++;
+		}
+
+		void remove(String clave) {
+			int mascara = claves.length - 1;
+			int hueco = posicion(clave, mascara);
+			while (claves[hueco] != null && !claves[hueco].equals(clave)) {
+				hueco = (hueco + 1) & mascara;
+			}
+			if (claves[hueco] == null) {
+				return;
+			}
+			claves[hueco] = null;
+			cantidad--;
+
+			// Una entrada se corre al hueco si su posicion ideal no queda entre el hueco y ella
+			for (int j = (hueco + 1) & mascara; claves[j] != null; j = (j + 1) & mascara) {
+				int ideal = posicion(claves[j], mascara);
+				if (((j - ideal) & mascara) >= ((j - hueco) & mascara)) {
+					claves[hueco] = claves[j];
+					valores[hueco] = valores[j];
+					claves[j] = null;
+					hueco = j;
+				}
+			}
+		}
+
+		private void crecer() {
+			String[] anteriores = claves;
+			int[] valoresAnteriores = valores;
+			claves = new String[anteriores.length * 2];
+			valores = new int[anteriores.length * 2];
+			int mascara = claves.length - 1;
+			for (int j = 0; j < anteriores.length; j++) {
+				if (anteriores[j] != null) {
+					int i = posicion(anteriores[j], mascara);
+					while (claves[i] != null) {
+						i = (i + 1) & mascara;
+					}
+					claves[i] = anteriores[j];
+					valores[i] = valoresAnteriores[j];
+				}
+			}
+		}
+
+		/** Se mezclan los bits del hash, los nombres con el mismo prefijo de tiempo
+		 *  tienen hashes parecidos */
+		private static int posicion(String clave, int mascara) {
+			int h = clave.hashCode() * 0x9E3779B9;
+			return (h ^ (h >>> 16)) & mascara;
+		}
+	}
+}
@@ -0,0 +1,45 @@
+package local;
+
+
+/** Resultado de identificar una huella dentro de un lote. Si la huella no se pudo
+ *  procesar 'error' tiene el motivo y 'nombre' queda en null */
+public class ResultadoIdentificacion {
+
+	private String nombre;		/** Nombre de la huella encontrada, null si ninguna coincide */
+	private int puntaje;		/** Puntaje de la coincidencia */
+	private String error;		/** Motivo por el que no se pudo identificar */
+
+
+	public ResultadoIdentificacion() {
+	}
+
+	public ResultadoIdentificacion(String nombre, int puntaje, String error) {
+		this.nombre = nombre;
+		this.puntaje = puntaje;
+		this.error = error;
+	}
+
+	public String getNombre() {
+		return nombre;
+	}
+
+	public void setNombre(String nombre) {
+		this.nombre = nombre;
+	}
+
+	public int getPuntaje() {
+		return puntaje;
+	}
+
+	public void setPuntaje(int puntaje) {
+		this.puntaje = puntaje;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	public void setError(String error) {
+		this.error = error;
+	}
+}
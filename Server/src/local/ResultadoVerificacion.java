@@ -0,0 +1,44 @@
+package local;
+
+
+/** Resultado de una comparacion 1:1 contra las huellas de una persona */
+public class ResultadoVerificacion {
+
+	private String nombre;		/** Persona contra la que se comparo */
+	private int puntaje;		/** Mayor puntaje obtenido */
+	private boolean coincide;	/** El puntaje alcanza el umbral de coincidencia */
+
+
+	public ResultadoVerificacion() {
+	}
+
+	public ResultadoVerificacion(String nombre, int puntaje, boolean coincide) {
+		this.nombre = nombre;
+		this.puntaje = puntaje;
+		this.coincide = coincide;
+	}
+
+	public String getNombre() {
+		return nombre;
+	}
+
+	public void setNombre(String nombre) {
+		this.nombre = nombre;
+	}
+
+	public int getPuntaje() {
+		return puntaje;
+	}
+
+	public void setPuntaje(int puntaje) {
+		this.puntaje = puntaje;
+	}
+
+	public boolean isCoincide() {
+		return coincide;
+	}
+
+	public void setCoincide(boolean coincide) {
+		this.coincide = coincide;
+	}
+}
@@ -0,0 +1,208 @@
+package local;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+
+/** Mantiene la galeria sincronizada con el directorio de huellas.
+ *  Los eventos de creacion, modificacion y borrado se acumulan y se aplican
+ *  cuando el directorio deja de recibir eventos durante 'espera' milisegundos.
+ *  Si el WatchService se desborda se reconcilia el directorio completo; si el
+ *  directorio deja de observarse se vuelve a registrar y tambien se reconcilia */
+public class SincronizadorDirectorio implements Runnable {
+
+	private Galeria galeria;					/** Galeria que se mantiene sincronizada */
+	private Path directorio;					/** Directorio observado */
+	private long espera;						/** Milisegundos sin eventos antes de aplicar los cambios */
+	private long intervaloReconciliacion;		/** Milisegundos entre reconciliaciones completas, 0 las desactiva */
+	private WatchService watcher;
+	private Thread hilo;
+
+	private LinkedHashMap<String, WatchEvent.Kind<?>> pendientes;	/** Ultimo evento por nombre de archivo */
+	private long primerPendiente;				/** Momento del primer evento aun no aplicado */
+	private boolean desbordado;					/** Se perdieron eventos, hay que reconciliar */
+	private boolean observado;					/** El directorio esta registrado en el WatchService */
+	private long ultimaReconciliacion;
+
+
+	public SincronizadorDirectorio(Galeria galeria, long espera, long intervaloReconciliacion) {
+		this.galeria = galeria;
+		this.directorio = Paths.get(galeria.getPath());
+		this.espera = espera;
+		this.intervaloReconciliacion = intervaloReconciliacion;
+		this.pendientes = new LinkedHashMap<String, WatchEvent.Kind<?>>();
+	}
+
+
+	/** Registra el directorio en el WatchService y arranca el hilo de sincronizacion */
+	public void iniciar() throws IOException {
+		watcher = FileSystems.getDefault().newWatchService();
+		registrar();
+		observado = true;
+
+		ultimaReconciliacion = System.currentTimeMillis();
+		hilo = new Thread(this, "sincronizador-huellas");
+		hilo.setDaemon(true);
+		hilo.start();
+	}
+
+	private void registrar() throws IOException {
+		directorio.register(watcher,
+				StandardWatchEventKinds.ENTRY_CREATE,
+				StandardWatchEventKinds.ENTRY_MODIFY,
+				StandardWatchEventKinds.ENTRY_DELETE);
+	}
+
+	public void detener() {
+		try {
+			if (watcher != null) watcher.close();
+		} catch (IOException e) {
+			//e.printStackTrace();
+		}
+		if (hilo != null) hilo.interrupt();
+	}
+
+
+	public void run() {
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+
+				WatchKey key = watcher.poll(espera, TimeUnit.MILLISECONDS);
+
+				if (key != null) {
+					for (WatchEvent<?> evento : key.pollEvents()) {
+						if (evento.kind() == StandardWatchEventKinds.OVERFLOW) {
+							desbordado = true;
+							continue;
+						}
+						String nombre = ((Path) evento.context()).getFileName().toString();
+						if (!nombre.startsWith(".")) {
+							if (pendientes.isEmpty()) {
+								primerPendiente = System.currentTimeMillis();
+							}
+							// Se conserva solo el ultimo evento de cada archivo
+							pendientes.remove(nombre);
+							pendientes.put(nombre, evento.kind());
+						}
+					}
+					if (!key.reset()) {
+						// El directorio ya no es accesible (se borro, se movio o se desmonto)
+						System.out.println("Se dejo de observar el directorio " + directorio
+								+ ", se sincroniza reconciliando hasta volver a registrarlo");
+						observado = false;
+						desbordado = true;
+					}
+					// Una rafaga que no se detiene igual se aplica, a lo sumo cada 10 esperas
+					if (pendientes.isEmpty() || System.currentTimeMillis() - primerPendiente < espera * 10) {
+						continue;
+					}
+				}
+
+				// No hubo eventos durante 'espera': se aplica la rafaga acumulada
+				if (!observado) {
+					volverARegistrar();
+				}
+				long ahora = System.currentTimeMillis();
+				if (desbordado || (intervaloReconciliacion > 0
+						&& ahora - ultimaReconciliacion >= intervaloReconciliacion)) {
+					reconciliar();
+				}
+				else if (!pendientes.isEmpty()) {
+					aplicarPendientes();
+				}
+			}
+		} catch (InterruptedException e) {
+			// Se detuvo el sincronizador
+		} catch (ClosedWatchServiceException e) {
+			// Se detuvo el sincronizador
+		}
+	}
+
+
+	/** Intenta registrar otra vez el directorio; mientras no se pueda, cada espera se
+	 *  reconcilia, asi los cambios se siguen aplicando sin eventos */
+	private void volverARegistrar() {
+		try {
+			registrar();
+			observado = true;
+			System.out.println("Se volvio a observar el directorio " + directorio);
+		} catch (IOException e) {
+			// Aun no existe; se reintenta en la siguiente espera
+		}
+		// Los eventos ocurridos mientras no se observaba se recuperan reconciliando
+		desbordado = true;
+	}
+
+	/** Aplica a la galeria los eventos acumulados desde la ultima vez. Los borrados se
+	 *  aplican juntos, con una sola instantanea publicada */
+	private void aplicarPendientes() {
+		ArrayList<String> borrados = new ArrayList<String>();
+		for (Map.Entry<String, WatchEvent.Kind<?>> pendiente : pendientes.entrySet()) {
+			String nombre = pendiente.getKey();
+			if (pendiente.getValue() == StandardWatchEventKinds.ENTRY_DELETE
+					|| !new File(directorio.toFile(), nombre).isFile()) {
+				borrados.add(nombre);
+				continue;
+			}
+			try {
+				galeria.actualizarArchivo(nombre);
+			} catch (Exception e) {
+				System.out.println("No se pudo sincronizar la huella " + nombre + ": " + e.getMessage());
+			}
+		}
+		try {
+			galeria.eliminarLote(borrados);
+		} catch (Exception e) {
+			System.out.println("No se pudieron quitar " + borrados.size() + " huellas borradas: " + e.getMessage());
+		}
+		pendientes.clear();
+	}
+
+
+	/** Compara el directorio completo con la galeria y aplica las diferencias */
+	public void reconciliar() {
+		pendientes.clear();
+		desbordado = false;
+		ultimaReconciliacion = System.currentTimeMillis();
+
+		File[] ficheros = directorio.toFile().listFiles();
+		if (ficheros == null) {
+			return;
+		}
+
+		HashSet<String> presentes = new HashSet<String>();
+		for (File fichero : ficheros) {
+			if (fichero.isFile() && !fichero.getName().startsWith(".")) {
+				presentes.add(fichero.getName());
+			}
+		}
+
+		ArrayList<String> borrados = new ArrayList<String>();
+		for (String nombre : galeria.getNombres()) {
+			if (!presentes.contains(nombre)) {
+				borrados.add(nombre);
+			}
+		}
+		galeria.eliminarLote(borrados);
+		for (String nombre : presentes) {
+			try {
+				galeria.actualizarArchivo(nombre);
+			} catch (Exception e) {
+				System.out.println("No se pudo sincronizar la huella " + nombre + ": " + e.getMessage());
+			}
+		}
+	}
+}
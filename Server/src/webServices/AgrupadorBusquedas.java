@@ -0,0 +1,74 @@
+package webServices;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/** Junta las busquedas identicas que estan en curso a la vez: la primera peticion
+ *  con una clave ejecuta la busqueda y las que llegan mientras tanto con la misma
+ *  clave esperan y reciben el mismo resultado (o la misma excepcion) */
+public class AgrupadorBusquedas<V> {
+
+	private ConcurrentHashMap<String, FutureTask<V>> enCurso;	/** Clave -> busqueda en curso */
+	private AtomicLong ejecutadas = new AtomicLong();			/** Busquedas realmente ejecutadas */
+	private AtomicLong compartidas = new AtomicLong();			/** Peticiones que reusaron una busqueda */
+
+
+	public AgrupadorBusquedas() {
+		enCurso = new ConcurrentHashMap<String, FutureTask<V>>();
+	}
+
+	/** Ejecuta 'busqueda' en este hilo, salvo que ya haya una en curso con la misma
+	 *  clave: en ese caso espera su resultado */
+	public V ejecutar(String clave, Callable<V> busqueda) throws Exception {
+		FutureTask<V> nueva = new FutureTask<V>(busqueda);
+		FutureTask<V> existente = enCurso.putIfAbsent(clave, nueva);
+		if (existente == null) {
+			ejecutadas.incrementAndGet();
+			try {
+				nueva.run();
+			} finally {
+				enCurso.remove(clave, nueva);
+			}
+			existente = nueva;
+		}
+		else {
+			compartidas.incrementAndGet();
+		}
+
+		try {
+			return existente.get();
+		} catch (ExecutionException e) {
+			throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+		}
+	}
+
+	public long getEjecutadas() {
+		return ejecutadas.get();
+	}
+
+	public long getCompartidas() {
+		return compartidas.get();
+	}
+
+
+	/** Resumen SHA-256 en hexadecimal, identifica una plantilla por su contenido */
+	public static String resumen(byte[] datos) {
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(datos);
+			StringBuilder hex = new StringBuilder(hash.length * 2);
+			for (byte b : hash) {
+				hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			// Toda JVM tiene SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package webServices;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/** Cache acotada (LRU) de resultados de identificacion por resumen de la huella.
+ *  Cada resultado vale 'ttl' milisegundos y solo para la version de la galeria con
+ *  la que se obtuvo: cualquier cambio de la galeria lo invalida */
+public class CacheResultados<V> {
+
+	/** Resultado guardado; 'valor' puede ser null (ninguna huella coincidio) */
+	public static class Entrada<V> {
+		private final V valor;
+		private final long expira;			/** System.nanoTime() a partir del cual no vale */
+
+		Entrada(V valor, long expira) {
+			this.valor = valor;
+			this.expira = expira;
+		}
+
+		public V getValor() {
+			return valor;
+		}
+	}
+
+	private LinkedHashMap<String, Entrada<V>> entradas;	/** En orden de acceso, la primera es la menos usada */
+	private long ttl;									/** Nanosegundos que vale un resultado */
+	private long versionActual;							/** Version de la galeria de las entradas */
+	private long aciertos;
+	private long fallos;
+
+
+	public CacheResultados(final int capacidad, long ttlMs) {
+		this.ttl = ttlMs * 1000000L;
+		this.entradas = new LinkedHashMap<String, Entrada<V>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			protected boolean removeEldestEntry(Map.Entry<String, Entrada<V>> mayor) {
+				return size() > capacidad;
+			}
+		};
+	}
+
+
+	/** Resultado guardado para 'clave', o null si no hay uno vigente para 'version' */
+	public synchronized Entrada<V> obtener(String clave, long version) {
+		if (version != versionActual) {
+			// La galeria cambio: nada de lo guardado sigue valiendo
+			entradas.clear();
+			versionActual = version;
+		}
+		Entrada<V> entrada = entradas.get(clave);
+		if (entrada != null && System.nanoTime() - entrada.expira >= 0) {
+			entradas.remove(clave);
+			entrada = null;
+		}
+		if (entrada == null) {
+			fallos++;
+		}
+		else {
+			aciertos++;
+		}
+		return entrada;
+	}
+
+	/** Guarda el resultado de una busqueda que empezo con la galeria en 'version' */
+	public synchronized void guardar(String clave, V valor, long version) {
+		if (version < versionActual) {
+			return;
+		}
+		if (version > versionActual) {
+			entradas.clear();
+			versionActual = version;
+		}
+		entradas.put(clave, new Entrada<V>(valor, System.nanoTime() + ttl));
+	}
+
+	public synchronized long getAciertos() {
+		return aciertos;
+	}
+
+	public synchronized long getFallos() {
+		return fallos;
+	}
+}
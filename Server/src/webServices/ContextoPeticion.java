@@ -0,0 +1,85 @@
+package webServices;
+
+import com.neurotec.biometrics.NSubject;
+import com.neurotec.io.NBuffer;
+
+
+/** Estado de una sola peticion: el mensaje con el resultado de la operacion y la
+ *  huella recibida. Se crea uno por llamada, asi las peticiones concurrentes no
+ *  comparten nada mas que el nucleo (ServicioHuellas), que es seguro entre hilos */
+public class ContextoPeticion {
+
+	private String operacion;			/** Nombre de la operacion atendida */
+	private long inicio;				/** System.nanoTime() al crear la peticion */
+	private StringBuilder mensaje;		/** Mensaje con el resultado de la operacion */
+	private boolean error;				/** La operacion termino con una excepcion */
+
+
+	public ContextoPeticion(String operacion) {
+		this.operacion = operacion;
+		this.inicio = System.nanoTime();
+		this.mensaje = new StringBuilder();
+	}
+
+	public String getOperacion() {
+		return operacion;
+	}
+
+	/** Milisegundos transcurridos desde que se creo la peticion */
+	public long getDuracion() {
+		return (System.nanoTime() - inicio) / 1000000L;
+	}
+
+	public String getMensaje() {
+		return mensaje.toString();
+	}
+
+	public boolean isError() {
+		return error;
+	}
+
+	/** Marca la peticion como fallida; si la excepcion no vino de error() se agrega su mensaje */
+	public void fallo(Exception e) {
+		error = true;
+		String texto = e.getMessage() == null ? e.toString() : e.getMessage().trim();
+		if (mensaje.indexOf(texto) < 0) {
+			agregarMensaje(texto);
+		}
+	}
+
+	public void agregarMensaje(String texto) {
+		mensaje.append("\n").append(texto);
+	}
+
+	/** Agrega 'texto' al mensaje y retorna la excepcion a lanzar, solo con el mensaje de
+	 *  esta peticion */
+	public Exception error(String texto) {
+		return new Exception(mensajeError(texto));
+	}
+
+	/** Como error(), para lanzar una excepcion que distingue el motivo: retorna el
+	 *  mensaje que debe llevar */
+	public String mensajeError(String texto) {
+		error = true;
+		agregarMensaje(texto);
+		return getMensaje();
+	}
+
+
+	/** Sujeto propio de esta peticion con la huella recibida. Lanza
+	 *  HuellaInvalidaException si la huella esta vacia o es de baja calidad */
+	public NSubject leerHuella(byte[] huella) throws HuellaInvalidaException {
+		NSubject subject = new NSubject();
+		try {
+			subject.setTemplateBuffer(new NBuffer(huella));
+		} catch (Exception e) {
+			subject.dispose();
+			throw new HuellaInvalidaException(mensajeError("La huella enviada al servidor esta vacia o es de baja calidad"));
+		}
+		if (subject.getFingers().isEmpty()) {
+			subject.dispose();
+			throw new HuellaInvalidaException(mensajeError("La huella enviada al servidor esta vacia o es de baja calidad"));
+		}
+		return subject;
+	}
+}
@@ -0,0 +1,110 @@
+package webServices;
+
+
+/** Limita las peticiones que se atienden a la vez. Las que exceden el limite esperan
+ *  en una cola acotada, a lo sumo 'esperaMaxima' milisegundos; si la cola esta llena
+ *  o se agota la espera se rechazan enseguida con ServidorOcupadoException, asi la
+ *  latencia de las admitidas no crece sin limite.
+ *  En modo adaptativo el limite se ajusta con la latencia observada (AIMD): baja un
+ *  10% si una peticion supera 'latenciaObjetivo' y sube de a uno cuando se completan
+ *  'limite' peticiones seguidas dentro del objetivo */
+public class ControlAdmision {
+
+	private int limite;						/** Peticiones que se atienden a la vez */
+	private int limiteMaximo;				/** Tope del limite en modo adaptativo */
+	private int cola;						/** Peticiones que pueden esperar */
+	private long esperaMaxima;				/** Milisegundos que espera una peticion antes de rechazarse */
+	private boolean adaptativo;
+	private long latenciaObjetivo;			/** Nanosegundos, solo en modo adaptativo */
+
+	private int enCurso;
+	private int esperando;
+	private int dentroObjetivo;				/** Peticiones seguidas que cumplieron el objetivo */
+	private long ultimaReduccion;			/** Una reduccion por ventana de 'latenciaObjetivo' */
+	private long admitidas;
+	private long rechazadas;
+
+
+	public ControlAdmision(int limite, int cola, long esperaMaxima) {
+		this.limite = Math.max(1, limite);
+		this.limiteMaximo = this.limite;
+		this.cola = Math.max(0, cola);
+		this.esperaMaxima = Math.max(0, esperaMaxima);
+	}
+
+	/** Activa el modo adaptativo: el limite varia entre 1 y 'limiteMaximo' */
+	public synchronized void setAdaptativo(long latenciaObjetivoMs, int limiteMaximo) {
+		this.adaptativo = true;
+		this.latenciaObjetivo = latenciaObjetivoMs * 1000000L;
+		this.limiteMaximo = Math.max(limite, limiteMaximo);
+	}
+
+
+	/** Espera un lugar para atender la peticion. Retorna el momento de la admision, que
+	 *  hay que pasar a salir() al terminar */
+	public synchronized long entrar() throws ServidorOcupadoException, InterruptedException {
+		if (enCurso >= limite || esperando > 0) {
+			if (esperando >= cola) {
+				rechazadas++;
+				throw new ServidorOcupadoException("Servidor ocupado, intente mas tarde");
+			}
+			esperando++;
+			try {
+				long limiteEspera = System.nanoTime() + esperaMaxima * 1000000L;
+				while (enCurso >= limite) {
+					long restante = limiteEspera - System.nanoTime();
+					if (restante <= 0) {
+						rechazadas++;
+						throw new ServidorOcupadoException("Servidor ocupado, intente mas tarde");
+					}
+					wait(restante / 1000000L, (int) (restante % 1000000L));
+				}
+			} finally {
+				esperando--;
+			}
+		}
+		enCurso++;
+		admitidas++;
+		return System.nanoTime();
+	}
+
+	public synchronized void salir(long admision) {
+		enCurso--;
+		if (adaptativo) {
+			long ahora = System.nanoTime();
+			if (ahora - admision > latenciaObjetivo) {
+				dentroObjetivo = 0;
+				if (ahora - ultimaReduccion > latenciaObjetivo) {
+					limite = Math.max(1, limite * 9 / 10);
+					ultimaReduccion = ahora;
+				}
+			}
+			else if (++dentroObjetivo >= limite) {
+				dentroObjetivo = 0;
+				limite = Math.min(limiteMaximo, limite + 1);
+			}
+		}
+		notifyAll();
+	}
+
+
+	public synchronized int getLimite() {
+		return limite;
+	}
+
+	public synchronized int getEnCurso() {
+		return enCurso;
+	}
+
+	public synchronized int getEsperando() {
+		return esperando;
+	}
+
+	public synchronized long getAdmitidas() {
+		return admitidas;
+	}
+
+	public synchronized long getRechazadas() {
+		return rechazadas;
+	}
+}
@@ -0,0 +1,189 @@
+package webServices;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+
+/** Crea los ejecutores que atienden las peticiones de los servidores publicados */
+public class Ejecutores {
+
+	/** Un hilo de plataforma por peticion en curso, con cola acotada */
+	public static final String HILOS = "hilos";
+	/** Un hilo virtual por peticion (Java 21 o superior) */
+	public static final String VIRTUAL = "virtual";
+	/** El ejecutor por defecto del servidor HTTP del JDK */
+	public static final String DEFECTO = "defecto";
+
+	private static final int HILOS_OCUPADO = 2;	/** Hilos que solo responden "servidor ocupado" */
+
+	/** Marca las peticiones que llegaron con la cola llena, ver isDesviada() */
+	private static final ThreadLocal<Boolean> DESVIADA = new ThreadLocal<Boolean>();
+
+
+	/** Retorna el ejecutor del 'tipo' indicado, o null para el ejecutor por defecto.
+	 *  Con "hilos" se usan 'hilos' hilos y hasta 'cola' peticiones en espera. Una
+	 *  peticion que no cabe en la cola nunca se atiende en el hilo que la entrega (el
+	 *  que acepta conexiones): pasa a unos pocos hilos aparte donde isDesviada() es
+	 *  true y ServicioHuellas la rechaza enseguida con ServidorOcupadoException. Si
+	 *  esos hilos tambien estan llenos se lanza RejectedExecutionException.
+	 *  Con "virtual" no hay cola: se atienden hasta 'hilos' + 'cola' peticiones a la
+	 *  vez, cada una en su hilo virtual, y las que exceden se desvian igual que con
+	 *  "hilos". Si la JVM no tiene hilos virtuales se usa el pool de "hilos" */
+	public static ExecutorService crear(String tipo, int hilos, int cola, final String nombre) {
+
+		if (DEFECTO.equals(tipo)) {
+			return null;
+		}
+		if (VIRTUAL.equals(tipo)) {
+			ExecutorService virtual = crearVirtual();
+			if (virtual != null) {
+				return new Acotado(virtual, Math.max(1, hilos) + Math.max(0, cola), crearOcupado(nombre, cola), nombre);
+			}
+			System.out.println("La JVM no tiene hilos virtuales, se usa un pool de " + hilos + " hilos");
+		}
+
+		hilos = Math.max(1, hilos);
+		final ThreadPoolExecutor ocupado = crearOcupado(nombre, cola);
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(hilos, hilos, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<Runnable>(Math.max(1, cola)), fabrica(nombre), new RejectedExecutionHandler() {
+					public void rejectedExecution(Runnable tarea, ThreadPoolExecutor pool) {
+						if (pool.isShutdown()) {
+							throw new RejectedExecutionException("El ejecutor " + nombre + " se detuvo");
+						}
+						desviar(ocupado, tarea);
+					}
+				}) {
+			protected void terminated() {
+				ocupado.shutdown();
+			}
+		};
+		pool.allowCoreThreadTimeOut(true);
+		return pool;
+	}
+
+	/** Unos pocos hilos que solo atienden peticiones desviadas */
+	private static ThreadPoolExecutor crearOcupado(String nombre, int cola) {
+		ThreadPoolExecutor ocupado = new ThreadPoolExecutor(HILOS_OCUPADO, HILOS_OCUPADO, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<Runnable>(Math.max(1, cola)), fabrica(nombre + "-ocupado"),
+				new ThreadPoolExecutor.AbortPolicy());
+		ocupado.allowCoreThreadTimeOut(true);
+		return ocupado;
+	}
+
+	/** Atiende la tarea en los hilos de 'ocupado', marcada como desviada */
+	private static void desviar(ThreadPoolExecutor ocupado, final Runnable tarea) {
+		ocupado.execute(new Runnable() {
+			public void run() {
+				DESVIADA.set(Boolean.TRUE);
+				try {
+					tarea.run();
+				} finally {
+					DESVIADA.remove();
+				}
+			}
+		});
+	}
+
+	/** Ejecutor sin cola propia (el de hilos virtuales) limitado a 'lugares' tareas a
+	 *  la vez; sin lugar libre la tarea se desvia */
+	private static class Acotado extends AbstractExecutorService {
+
+		private final ExecutorService destino;
+		private final Semaphore lugares;
+		private final ThreadPoolExecutor ocupado;
+		private final String nombre;
+
+		Acotado(ExecutorService destino, int lugares, ThreadPoolExecutor ocupado, String nombre) {
+			this.destino = destino;
+			this.lugares = new Semaphore(lugares);
+			this.ocupado = ocupado;
+			this.nombre = nombre;
+		}
+
+		public void execute(final Runnable tarea) {
+			if (destino.isShutdown()) {
+				throw new RejectedExecutionException("El ejecutor " + nombre + " se detuvo");
+			}
+			if (!lugares.tryAcquire()) {
+				desviar(ocupado, tarea);
+				return;
+			}
+			try {
+				destino.execute(new Runnable() {
+					public void run() {
+						try {
+							tarea.run();
+						} finally {
+							lugares.release();
+						}
+					}
+				});
+			} catch (RuntimeException e) {
+				lugares.release();
+				throw e;
+			}
+		}
+
+		public void shutdown() {
+			destino.shutdown();
+			ocupado.shutdown();
+		}
+
+		public List<Runnable> shutdownNow() {
+			List<Runnable> pendientes = new ArrayList<Runnable>(destino.shutdownNow());
+			pendientes.addAll(ocupado.shutdownNow());
+			return pendientes;
+		}
+
+		public boolean isShutdown() {
+			return destino.isShutdown();
+		}
+
+		public boolean isTerminated() {
+			return destino.isTerminated() && ocupado.isTerminated();
+		}
+
+		public boolean awaitTermination(long tiempo, TimeUnit unidad) throws InterruptedException {
+			long limite = System.nanoTime() + unidad.toNanos(tiempo);
+			return destino.awaitTermination(tiempo, unidad)
+					&& ocupado.awaitTermination(limite - System.nanoTime(), TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/** La peticion que atiende este hilo llego con la cola llena: solo hay que responder
+	 *  que el servidor esta ocupado, sin hacer el trabajo */
+	public static boolean isDesviada() {
+		return DESVIADA.get() != null;
+	}
+
+	private static ThreadFactory fabrica(final String nombre) {
+		return new ThreadFactory() {
+			private int numero;
+			public synchronized Thread newThread(Runnable r) {
+				Thread hilo = new Thread(r, nombre + "-" + (++numero));
+				hilo.setDaemon(true);
+				return hilo;
+			}
+		};
+	}
+
+	/** Executors.newVirtualThreadPerTaskExecutor() por reflexion, el proyecto compila
+	 *  para Java 7. Retorna null si no existe */
+	private static ExecutorService crearVirtual() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (Exception e) {
+			return null;
+		}
+	}
+}
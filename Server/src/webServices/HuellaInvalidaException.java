@@ -0,0 +1,13 @@
+package webServices;
+
+
+/** La huella enviada esta vacia o es de baja calidad; reenviarla no cambia el
+ *  resultado, hay que capturarla de nuevo */
+public class HuellaInvalidaException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	public HuellaInvalidaException(String mensaje) {
+		super(mensaje);
+	}
+}
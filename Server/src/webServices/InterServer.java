@@ -1,10 +1,18 @@
 package webServices;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import javax.jws.WebMethod;
 import javax.jws.WebService;
 
+import local.Candidato;
+import local.HuellaNueva;
+import local.Operacion;
+import local.PaginaHuellas;
+import local.ResultadoIdentificacion;
+import local.ResultadoVerificacion;
+
 
 @WebService
 public interface InterServer {
@@ -15,13 +23,45 @@ public interface InterServer {
 	@WebMethod
 	public String getMensaje();
 	
+	/**
+	 * Consulta el historial de operaciones del servidor
+	 * @param operacion nombre de la operacion, vacio para todas
+	 * @param soloErrores solo las operaciones que fallaron
+	 * @param desde se retornan las operaciones con numero mayor a este
+	 * @param cantidad maximo de operaciones a retornar
+	 */
+	@WebMethod
+	public ArrayList<Operacion> buscarOperaciones(String operacion, boolean soloErrores, long desde, int cantidad);
+	
+	/**
+	 * Lista completa de huellas enroladas, para galerias grandes usar listarHuellas
+	 */
 	@WebMethod
 	public ArrayList<String> getListaHuellas();
 	
+	/**
+	 * Lista las huellas enroladas por paginas, ordenadas por nombre de la persona
+	 * @param cursor cursor de la pagina anterior, vacio para la primera
+	 * @param tamano nombres por pagina, limitado por 'max_pagina' de la configuracion
+	 * @param prefijo solo las huellas de las personas cuyo nombre empieza con este
+	 * texto (no el nombre de archivo, que empieza con la marca de tiempo), vacio para todas
+	 * @return la pagina; su cursor es null cuando no hay mas
+	 */
+	@WebMethod
+	public PaginaHuellas listarHuellas(String cursor, int tamano, String prefijo);
+	
 	
 	
 	@WebMethod
-	public int guardarHuella(String nombre, byte[] huella) throws Exception;
+	public int guardarHuella(String nombre, byte[] huella) throws ServidorOcupadoException, Exception;
+	
+	/**
+	 * Guarda un lote de huellas con una sola escritura al almacen
+	 * @return un codigo por huella: 0 guardada y enrolada, -1 no se pudo guardar,
+	 * -2 huella vacia o de baja calidad, -3 guardada pero no enrolada, -4 nombre vacio o invalido
+	 */
+	@WebMethod
+	public ArrayList<Integer> guardarHuellas(List<HuellaNueva> huellas) throws ServidorOcupadoException, Exception;
 	
 	@WebMethod
 	/**
@@ -30,6 +70,27 @@ public interface InterServer {
 	 * @return lo que retorna
 	 * @throws Exception la excepcion
 	 */
-	public String identificarHuella(byte[] huella) throws Exception ;
+	public String identificarHuella(byte[] huella) throws ServidorOcupadoException, Exception ;
+	
+	/**
+	 * Se detiene en la primera huella que alcance 'puntajeMinimo', sin buscar la mejor
+	 * @param puntajeMinimo si es 0 o menor se usa el configurado en el servidor; nunca
+	 * se acepta un puntaje menor al umbral del servidor
+	 */
+	@WebMethod
+	public String identificarHuellaPrimera(byte[] huella, int puntajeMinimo) throws ServidorOcupadoException, Exception;
+	
+	@WebMethod
+	public ArrayList<ResultadoIdentificacion> identificarHuellas(List<byte[]> huellas) throws ServidorOcupadoException, Exception;
+	
+	/**
+	 * Las personas cuya huella mas se parece a la enviada, de mayor a menor puntaje
+	 * @return a lo sumo 'max_candidatos' candidatos, vacio si ninguna coincide
+	 */
+	@WebMethod
+	public ArrayList<Candidato> identificarCandidatos(byte[] huella) throws ServidorOcupadoException, Exception;
+	
+	@WebMethod
+	public ResultadoVerificacion verificarHuella(String nombre, byte[] huella) throws ServidorOcupadoException, Exception;
 		
 }
\ No newline at end of file
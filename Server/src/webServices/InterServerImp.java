@@ -1,36 +1,50 @@
 package webServices;
 
-import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeoutException;
 
 import javax.jws.WebService;
 import javax.xml.ws.Endpoint;
+import javax.xml.ws.soap.MTOM;
 
-import com.neurotec.io.NBuffer;
-
-import local.Mapeador;
+import local.Candidato;
+import local.HuellaNueva;
 import local.Licencias;
+import local.Operacion;
+import local.PaginaHuellas;
+import local.RegistroOperaciones;
+import local.ResultadoIdentificacion;
+import local.ResultadoVerificacion;
 
 
+/** Endpoint publicado del servidor de huellas. No guarda estado de las peticiones:
+ *  cada llamada crea su ContextoPeticion y delega en ServicioHuellas. Las huellas viajan
+ *  como adjuntos binarios (MTOM) en lugar de texto base64 dentro del XML */
+@MTOM
 @WebService(endpointInterface = "webServices.InterServer")
 public class InterServerImp implements InterServer {	
 
 	private static String ipServidor; 		/** IP del servidor */
 	private static String puerto;			/** Puerto donde corre el Web Services */
 	private static String webServicesName;	/** URL del Web Services */
+	private static final int MENSAJES_RECIENTES = 50;	/** Operaciones que incluye getMensaje() */
 	
 	private String directorio; 		/** Directorio donde se almacenan las huellas */
-	private String mensaje; 		/** Mensaje con el resultado de las operacion */
+	private RegistroOperaciones registro;	/** Historial acotado de las operaciones terminadas */
 	private Licencias licencia;		/** Clase para las Licencias */
-	private Mapeador mapeador;		/** Mapeador de las instrucciones */
-	
-	private ArrayList<String> listaHuellas;		/** Lista de los nombres de archivos */
-	File f;
+	private Properties propiedades;	/** Contenido del archivo de configuracion */
+	private ServicioHuellas servicio;	/** Nucleo del servidor, compartido por todas las peticiones */
+	private ExecutorService ejecutor;	/** Hilos que atienden las peticiones, null si es el del JDK */
+	private ServidorBinario binario;	/** Protocolo binario junto al web service, null si esta desactivado */
+	private ExecutorService ejecutorBinario;	/** Hilos que atienden las peticiones binarias */
+	private ServidorJson json;			/** Fachada JSON sobre HTTP, null si esta desactivada */
+	private ExecutorService ejecutorJson;	/** Hilos que atienden las peticiones JSON, null si es el del JDK */
 	
 	
 	public static String getIpServidor() {
@@ -59,30 +73,99 @@ public class InterServerImp implements InterServer {
 	
 	
 	public InterServerImp(){
-		mapeador = new Mapeador();
 		licencia = new Licencias();
-		listaHuellas = new ArrayList<String>();
+		registro = new RegistroOperaciones(1000);
 	}
 	
+	/** Crea el Endpoint, le asigna el ejecutor configurado ('ejecutor', 'hilos_peticiones',
+	 *  'cola_peticiones') y lo publica */
 	public void publicar(String url){
 		//getIpServidor();
 			
 		System.out.println("publicando: "+url);
-		Endpoint.publish(url, this);
+		Endpoint endpoint = Endpoint.create(this);
+		ejecutor = Ejecutores.crear(propiedades.getProperty("ejecutor", Ejecutores.HILOS).trim(),
+				servicio.leerEntero("hilos_peticiones", 16),
+				servicio.leerEntero("cola_peticiones", 100), "peticion-ws");
+		if (ejecutor != null) {
+			endpoint.setExecutor(ejecutor);
+		}
+		endpoint.publish(url);
 		 System.out.println("Server Listo!");
 		
+		publicarBinario();
+		publicarJson();
+	}
+	
+	/** Abre el servidor binario en 'puerto_binario' (0 = desactivado), con su propio
+	 *  ejecutor configurado igual que el del web service */
+	private void publicarBinario() {
+		int puertoBinario = servicio.leerEntero("puerto_binario", 0);
+		if (puertoBinario <= 0) {
+			return;
+		}
+		String tipo = propiedades.getProperty("ejecutor", Ejecutores.HILOS).trim();
+		ejecutorBinario = Ejecutores.crear(Ejecutores.DEFECTO.equals(tipo) ? Ejecutores.HILOS : tipo,
+				servicio.leerEntero("hilos_peticiones", 16),
+				servicio.leerEntero("cola_peticiones", 100), "peticion-bin");
+		binario = new ServidorBinario(servicio, registro, ejecutorBinario);
+		try {
+			binario.iniciar(ipServidor, puertoBinario);
+			registrar("Servidor binario publicado en el puerto " + puertoBinario);
+		} catch (IOException e) {
+			registrar("No se pudo abrir el puerto binario " + puertoBinario + ": " + e.getMessage());
+			binario = null;
+			ejecutorBinario.shutdown();
+		}
+	}
+	
+	/** Abre la fachada JSON en 'puerto_json' (0 = desactivada), con su propio ejecutor
+	 *  configurado igual que el del web service */
+	private void publicarJson() {
+		int puertoJson = servicio.leerEntero("puerto_json", 0);
+		if (puertoJson <= 0) {
+			return;
+		}
+		ejecutorJson = Ejecutores.crear(propiedades.getProperty("ejecutor", Ejecutores.HILOS).trim(),
+				servicio.leerEntero("hilos_peticiones", 16),
+				servicio.leerEntero("cola_peticiones", 100), "peticion-json");
+		json = new ServidorJson(servicio, registro);
+		try {
+			json.iniciar(ipServidor, puertoJson, ejecutorJson);
+			registrar("Servidor JSON publicado en el puerto " + puertoJson);
+		} catch (IOException e) {
+			registrar("No se pudo abrir el puerto JSON " + puertoJson + ": " + e.getMessage());
+			json = null;
+			if (ejecutorJson != null) {
+				ejecutorJson.shutdown();
+			}
+		}
 	}
 
 	public String getDirectorio() {
 		return directorio;
 	}
 
+	/** Mensajes de las ultimas operaciones, ver buscarOperaciones para consultar el historial */
 	public String getMensaje() {
-		return mensaje;
+		return registro.getTexto(MENSAJES_RECIENTES);
+	}
+
+	public ArrayList<Operacion> buscarOperaciones(String operacion, boolean soloErrores, long desde, int cantidad) {
+		return registro.buscar(operacion == null || operacion.isEmpty() ? null : operacion, soloErrores,
+				desde, Math.min(Math.max(0, cantidad), registro.getCapacidad()));
 	}
 
 	public ArrayList<String> getListaHuellas() {
-		return listaHuellas;
+		return servicio != null ? servicio.getNombres() : new ArrayList<String>();
+	}
+
+	public PaginaHuellas listarHuellas(String cursor, int tamano, String prefijo) {
+		return servicio != null ? servicio.listarHuellas(cursor, tamano, prefijo) : new PaginaHuellas();
+	}
+
+	public ServicioHuellas getServicio() {
+		return servicio;
 	}
 
 	
@@ -93,105 +176,116 @@ public class InterServerImp implements InterServer {
 			licencia.parsearLicenses();
 			boolean b = licencia.getLicenseState("Biometrics.FingerMatching");
 			if(b == true){
-				mensaje = mensaje + "\n" + "Las licencias se han obtenido correctamente";							
+				registrar("Las licencias se han obtenido correctamente");							
 			}
 			return 0;
 			
 		} catch (IOException e) {
 			//e.printStackTrace();
-			mensaje = mensaje + "\n" + "No se ha obtenido la licencia";
-			mensaje = mensaje + "\n" + "Se ha ejecutado el activador?";
+			registrar("No se ha obtenido la licencia");
+			registrar("Se ha ejecutado el activador?");
 			return -1;
 		} catch (TimeoutException e) {
 			//e.printStackTrace();
-			mensaje = mensaje + "\n" + "No hay conexion para la obtencion de licencias";
+			registrar("No hay conexion para la obtencion de licencias");
 			return -1;
 		}
 	}
-
-
 	
-	public int guardarHuella(String nombre, byte[] huellaBytes) throws Exception {		
+	
+	public int guardarHuella(String nombre, byte[] huellaBytes) throws ServidorOcupadoException, Exception {		
 		System.out.println("Entra peticion de Guardado...");
-		
-		// Se carga la huella en la variable de la clase Lector
-		this.mapeador.getLector().getSubject().setTemplateBuffer(new NBuffer(huellaBytes));
-		
-		// Se comprueba calidad de la huella recibida
-        if(this.mapeador.getLector().getSubject().getFingers().isEmpty()){
-        	mensaje = mensaje + "\n" + "La huella enviada al servidor esta vacia o es de baja calidad";
-			throw new Exception(mensaje);
-        }
-		
-		// Se obtiene un tiempo del sistema
-		long time = System.nanoTime();		
-		
-		// Se concatena con el formato: time-nombre
-		String nomFinal = Long.toString(time).concat("-").concat(nombre);
-		
-//		System.out.println(time);
-//		System.out.println("Nom final: "+nomFinal);		
-		
-		// Se define una ruta que incluya el nombre final del archivo
-		String ubicacion = directorio.concat(nomFinal);
-		
-		// Se define la ruta donde se guardara la huella
-		this.mapeador.setPathSave(ubicacion);
-		
-		
-		// Se inicia el proceso de guardado
-		if(this.mapeador.manejador("guardar")){			
-			mensaje = mensaje + "\n" + "Huella creada en: "+this.getDirectorio()
-					+ " con el nombre "+ nomFinal;
-			System.out.println("Huella creada en: "+this.getDirectorio()+ " con el nombre "+ nomFinal);
-			return 0;
-			
+		ContextoPeticion contexto = new ContextoPeticion("guardarHuella");
+		try {
+			return servicio.guardarHuella(contexto, nombre, huellaBytes);
+		} catch (Exception e) {
+			contexto.fallo(e);
+			throw paraSoap(e);
+		} finally {
+			registrar(contexto);
 		}
-		else{
-			mensaje = mensaje + "\n" + "Problema con el nombre con "
-					+ "que se guarda o la ruta donde se guarda";
-			return -1;
-		}		
 	}
 	
-	/** Carga los nombres de los archivos (huellas) disponibles del 'directorio' */
-	public void cargarArchivos() {
-		
-		f = new File(directorio);
-		
-		// Si el directorio existe...
-		if (f.exists()) {
-			// System.out.println("Huellas disponibles:\n");
-			File[] ficheros = f.listFiles();
-			
-			// Se cargan los nombres en la lista "listaHuellas"
-			for (int x = 0; x < ficheros.length; x++) {
-				 //System.out.println(ficheros[x].getName());
-				listaHuellas.add(ficheros[x].getName());
+	/** Retorna un codigo por huella, ver InterServer.guardarHuellas */
+	public ArrayList<Integer> guardarHuellas(List<HuellaNueva> huellas) throws ServidorOcupadoException, Exception {
+		System.out.println("Entra peticion de Guardado de " + huellas.size() + " huellas...");
+		ContextoPeticion contexto = new ContextoPeticion("guardarHuellas");
+		try {
+			return servicio.guardarHuellas(contexto, huellas);
+		} catch (Exception e) {
+			contexto.fallo(e);
+			throw paraSoap(e);
+		} finally {
+			registrar(contexto);
+		}
+	}
+	
+	/** Enrola una unica vez en la galeria las huellas del almacen; la galeria
+	 * luego atiende todas las identificaciones */
+	public int cargarGaleria() {
+		servicio = new ServicioHuellas(directorio, propiedades);
+		ContextoPeticion contexto = new ContextoPeticion("cargarGaleria");
+		try {
+			return servicio.cargarGaleria(contexto);
+		} catch (Exception e) {
+			contexto.fallo(e);
+			throw e;
+		} finally {
+			registrar(contexto);
+		}
+	}
+	
+	/** Escribe el punto de control de la galeria si hubo cambios desde el anterior */
+	public int escribirPuntoControl() {
+		return servicio != null ? servicio.escribirPuntoControl() : -1;
+	}
+	
+	/** Detiene la sincronizacion, escribe el punto de control y cierra el almacen,
+	 * persistiendo su indice */
+	public void cerrar() {
+		if (binario != null) {
+			binario.detener();
+			ejecutorBinario.shutdown();
+		}
+		if (json != null) {
+			json.detener();
+			if (ejecutorJson != null) {
+				ejecutorJson.shutdown();
 			}
 		}
+		if (ejecutor != null) {
+			ejecutor.shutdown();
+		}
+		if (servicio != null) {
+			ContextoPeticion contexto = new ContextoPeticion("cerrar");
+			servicio.cerrar(contexto);
+			registrar(contexto);
+		}
 	}
 	
-	/** Una vez cargados los nombres de archivos en "listaHuellas" se invoca a este
-	 * metodo para comenzar el proceso de identificacion */
-	public int identify(ArrayList<String> huellas) {
-		int aux;
-		mapeador.fingers = huellas;
-		mapeador.setPath(directorio);
-
-		mapeador.manejador("identificar");
-		
-		aux = mapeador.getIdentifyFinger().getPosicion();
-		
-		// Setea el valor, no se leyo aun desde el lector
-		//this.instancia.identifyFinger.posicion = -1;
-		return aux;
-
+	/** Los motivos que distingue ServicioHuellas (ver ServidorJson) viajan por SOAP como
+	 *  la Exception de siempre, con el mismo mensaje; el WSDL no cambia */
+	private static Exception paraSoap(Exception e) {
+		if (e instanceof SinCoincidenciaException || e instanceof HuellaInvalidaException
+				|| e instanceof PersonaDesconocidaException) {
+			return new Exception(e.getMessage());
+		}
+		return e;
+	}
+	
+	/** Registra en el historial el resultado de una operacion terminada */
+	private void registrar(ContextoPeticion contexto) {
+		registro.registrar(contexto.getOperacion(), contexto.getMensaje().trim(), contexto.getDuracion(),
+				contexto.isError());
+	}
+	
+	private void registrar(String texto) {
+		registro.registrar("servidor", texto);
 	}
 	
 	public int leerConfiguracion(){
 		int res;
-	    Properties propiedades = new Properties();
+	    propiedades = new Properties();
 	    InputStream entrada = null;
 	    try {
 
@@ -218,11 +312,11 @@ public class InterServerImp implements InterServer {
 	        //System.out.println(buffer);
  	        
 	        res = 0;
-	        mensaje += "\nLas configuraciones han sido leidas correctamente";
+	        registrar("Las configuraciones han sido leidas correctamente");
 
 	    } catch (IOException ex) {
 	        ex.printStackTrace();
-	        mensaje += "\nProblema con la lectura del archivo de configuracion";
+	        registrar("Problema con la lectura del archivo de configuracion");
 	        res = -1;
 	    } finally {
 	        if (entrada != null) {
@@ -230,8 +324,8 @@ public class InterServerImp implements InterServer {
 	                entrada.close();
 	            } catch (IOException e) {
 	                e.printStackTrace();
-	                mensaje += "\nProblema con la lectura del archivo de configuracion. "
-	                		+ "Tampoco puede cerrarse";
+	                registrar("Problema con la lectura del archivo de configuracion. "
+	                		+ "Tampoco puede cerrarse");
 	                res = -2;
 	            }
 	        }
@@ -239,65 +333,83 @@ public class InterServerImp implements InterServer {
 		return res;
 	}
 	
-	public String identificarHuella(byte [] huella) throws Exception {
+	public String identificarHuella(byte [] huella) throws ServidorOcupadoException, Exception {
 		System.out.println("Entra peticion de Identificacion...");
-		int resultado;
-		
-		/*  Se carga en la variable subject de la clase Lector, lo recibido
-		   	como parametro  */
-		this.mapeador.getLector().getSubject().setTemplateBuffer(new NBuffer(huella));
-			
-		// Se comprueba calidad de la huella recibida
-        if(this.mapeador.getLector().getSubject().getFingers().isEmpty()){
-        	mensaje = mensaje + "\n" + "La huella enviada al servidor esta vacia o es de baja calidad";
-			throw new Exception(mensaje);
-        }
-		
-        
-		// Se proceden a cargar los nombres de archivos en la lista
-		cargarArchivos();
-		
-		// Se inicia el proceso de identificacion
-		resultado = identify(listaHuellas);
-		
-		
-		/* Se evalua el resultado obtenido */
-		if (resultado == -1){
-			mensaje = mensaje + "\n" + "Aun no se ha leido huella desde el lector";
-			throw new Exception(mensaje);
+		ContextoPeticion contexto = new ContextoPeticion("identificarHuella");
+		try {
+			return servicio.identificarHuella(contexto, huella);
+		} catch (Exception e) {
+			contexto.fallo(e);
+			throw paraSoap(e);
+		} finally {
+			registrar(contexto);
 		}
-		if (resultado == -2){			
-			if(!f.exists()){
-				mensaje = mensaje + "\n" + "Directorio no existe";
-				throw new Exception(mensaje);
-				//return -2;				
-			}
-			else{
-				mensaje = mensaje + "\n" + "Ninguna huella hace match";
-				throw new Exception(mensaje);				
-			}
-		}		
-		
-		// Se obtiene el nombre del archivo (huella) que hace match				
-		String nomHuellaFile = this.getListaHuellas().get(resultado);
-		
-		
-		//Separar, tomar todo lo que esta delante de '-'
+	}
+	
+	/** Modo rapido: acepta la primera huella que alcance 'puntajeMinimo' sin buscar la
+	 *  mejor. Con 'puntajeMinimo' <= 0 se usa 'puntaje_primera' de la configuracion */
+	public String identificarHuellaPrimera(byte [] huella, int puntajeMinimo) throws ServidorOcupadoException, Exception {
+		System.out.println("Entra peticion de Identificacion...");
+		ContextoPeticion contexto = new ContextoPeticion("identificarHuellaPrimera");
+		try {
+			return servicio.identificarHuellaPrimera(contexto, huella, puntajeMinimo);
+		} catch (Exception e) {
+			contexto.fallo(e);
+			throw paraSoap(e);
+		} finally {
+			registrar(contexto);
+		}
+	}
+	
+	/** Identifica un lote de huellas en una sola llamada. Retorna un resultado por
+	 *  huella, en el mismo orden; una huella invalida o sin coincidencia no hace
+	 *  fallar al resto del lote */
+	public ArrayList<ResultadoIdentificacion> identificarHuellas(List<byte[]> huellas) throws ServidorOcupadoException, Exception {
+		System.out.println("Entra peticion de Identificacion de " + huellas.size() + " huellas...");
+		ContextoPeticion contexto = new ContextoPeticion("identificarHuellas");
+		try {
+			return servicio.identificarHuellas(contexto, huellas);
+		} catch (Exception e) {
+			contexto.fallo(e);
+			throw paraSoap(e);
+		} finally {
+			registrar(contexto);
+		}
+	}
+	
+	/** Retorna los candidatos de mayor puntaje, a lo sumo 'max_candidatos' */
+	public ArrayList<Candidato> identificarCandidatos(byte[] huella) throws ServidorOcupadoException, Exception {
+		System.out.println("Entra peticion de Candidatos...");
+		ContextoPeticion contexto = new ContextoPeticion("identificarCandidatos");
 		try {
-			int posCaracter = nomHuellaFile.indexOf('-')+1;		
-			mensaje = mensaje + "\n" + "Usted es: " + nomHuellaFile.substring(posCaracter);
-			return nomHuellaFile.substring(posCaracter);
+			return servicio.identificarCandidatos(contexto, huella);
 		} catch (Exception e) {
-			// TODO: handle exception
-			mensaje = mensaje + "\n" + "Problemas con formato del nombre de la huella";
-			throw new Exception(mensaje);
-		}		
+			contexto.fallo(e);
+			throw paraSoap(e);
+		} finally {
+			registrar(contexto);
+		}
+	}
+	
+	/** Compara la huella solo contra las huellas enroladas con 'nombre' (1:1).
+	 *  Si no coincide retorna el resultado con coincide = false */
+	public ResultadoVerificacion verificarHuella(String nombre, byte[] huella) throws ServidorOcupadoException, Exception {
+		System.out.println("Entra peticion de Verificacion...");
+		ContextoPeticion contexto = new ContextoPeticion("verificarHuella");
+		try {
+			return servicio.verificarHuella(contexto, nombre, huella);
+		} catch (Exception e) {
+			contexto.fallo(e);
+			throw paraSoap(e);
+		} finally {
+			registrar(contexto);
+		}
 	}
 	
 	 public static void main(String[] args) throws Exception {	
 
 		 System.out.println("Iniciando WS Server");
-		 InterServerImp servidor = new InterServerImp();
+		 final InterServerImp servidor = new InterServerImp();
 		
 		 // Se lee el archivo de configuracion
 		 int lc = servidor.leerConfiguracion();			
@@ -316,6 +428,23 @@ public class InterServerImp implements InterServer {
 				 //System.out.println("\nProblema con Licencias");
 			 }
 			 else{
+				 int cg = servidor.cargarGaleria();
+				 System.out.println("cargarGaleria:"+cg);
+				 
+				 // Sin galeria todas las peticiones fallarian: no se publica el servicio
+				 if (cg != 0) {
+					 System.out.println("No se publica el servicio, la galeria no esta disponible:"
+							 + servidor.getMensaje());
+					 servidor.cerrar();
+					 System.exit(1);
+				 }
+				 
+				 // Al detener el servidor se cierra el almacen ordenadamente
+				 Runtime.getRuntime().addShutdownHook(new Thread() {
+					 public void run() {
+						 servidor.cerrar();
+					 }
+				 });
 				 servidor.publicar(url);
 			 }
 		 }
@@ -0,0 +1,12 @@
+package webServices;
+
+
+/** Se pidio verificar contra un nombre que no tiene huellas enroladas */
+public class PersonaDesconocidaException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	public PersonaDesconocidaException(String mensaje) {
+		super(mensaje);
+	}
+}
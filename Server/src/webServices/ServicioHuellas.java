@@ -0,0 +1,612 @@
+package webServices;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.neurotec.biometrics.NSubject;
+import com.neurotec.io.NBuffer;
+
+import local.AlmacenArchivos;
+import local.AlmacenHuellas;
+import local.AlmacenSegmentos;
+import local.Candidato;
+import local.Galeria;
+import local.HuellaNueva;
+import local.PaginaHuellas;
+import local.PuntoControl;
+import local.ResultadoIdentificacion;
+import local.ResultadoVerificacion;
+import local.SincronizadorDirectorio;
+
+
+/** Nucleo del servidor de huellas, compartido por todas las peticiones.
+ *  No guarda estado de ninguna peticion: cada operacion recibe su ContextoPeticion
+ *  y trabaja con su propio NSubject, por lo que puede atender muchas a la vez.
+ *  La configuracion solo se modifica al iniciar, antes de atender peticiones */
+public class ServicioHuellas {
+
+	private static final int MAXIMO_NOMBRE = 200;	/** Caracteres de un nombre, con la marca de tiempo cabe en un nombre de archivo */
+
+	private String directorio;		/** Directorio donde se almacenan las huellas */
+	private Properties propiedades;	/** Contenido del archivo de configuracion */
+	private AlmacenHuellas almacen;	/** Donde se persisten las plantillas */
+	private Galeria galeria;		/** Huellas enroladas, se cargan una vez al iniciar */
+	private SincronizadorDirectorio sincronizador;	/** Aplica a la galeria los cambios del directorio */
+	private PuntoControl puntoControl;	/** Copia de la galeria para reinicios rapidos */
+	private ScheduledExecutorService tareas;	/** Tareas periodicas del servidor */
+	private boolean primeraCoincidencia;	/** identificarHuella se detiene en la primera coincidencia */
+	private int puntajePrimera;		/** Puntaje que debe alcanzar la primera coincidencia */
+	private AtomicLong ultimoTiempo;	/** Ultimo tiempo usado en un nombre de archivo */
+	private ControlAdmision admision;	/** Limite de peticiones pesadas a la vez, null sin limite */
+	private AgrupadorBusquedas<String> identificaciones;	/** Identificaciones en curso por huella */
+	private CacheResultados<String> resultados;	/** Identificaciones recientes por huella, null sin cache */
+	private int maximoPagina;		/** Mayor cantidad de nombres por pagina de listarHuellas */
+	private int maximoLote;			/** Mayor cantidad de huellas por llamada de identificarHuellas */
+
+
+	public ServicioHuellas(String directorio, Properties propiedades) {
+		this.directorio = directorio;
+		this.propiedades = propiedades;
+		this.ultimoTiempo = new AtomicLong();
+		this.identificaciones = new AgrupadorBusquedas<String>();
+		this.maximoPagina = Math.max(1, leerEntero("max_pagina", 1000));
+		this.maximoLote = Math.max(1, leerEntero("max_lote_identificacion", 100));
+		int capacidadCache = leerEntero("cache_resultados", 1000);
+		if (capacidadCache > 0) {
+			this.resultados = new CacheResultados<String>(capacidadCache, leerEntero("ttl_cache_ms", 2000));
+		}
+
+		int limite = leerEntero("limite_peticiones", 0);
+		if (limite > 0) {
+			admision = new ControlAdmision(limite, leerEntero("cola_admision", limite * 4),
+					leerEntero("espera_admision_ms", 2000));
+			if ("si".equals(propiedades.getProperty("admision_adaptativa", "no").trim())) {
+				admision.setAdaptativo(leerEntero("latencia_objetivo_ms", 500),
+						leerEntero("limite_maximo_peticiones", limite * 4));
+			}
+		}
+	}
+
+	/** Control de admision de las peticiones, null si no hay limite */
+	public ControlAdmision getAdmision() {
+		return admision;
+	}
+
+	public String getDirectorio() {
+		return directorio;
+	}
+
+	public Galeria getGaleria() {
+		return galeria;
+	}
+
+	/** Todos los nombres enrolados; para galerias grandes usar listarHuellas */
+	public ArrayList<String> getNombres() {
+		return galeria != null ? galeria.getNombres() : new ArrayList<String>();
+	}
+
+	/** Una pagina de los nombres enrolados, ver Galeria.listar. 'tamano' se limita a
+	 *  'max_pagina'; con 'tamano' <= 0 se usa ese maximo */
+	public PaginaHuellas listarHuellas(String cursor, int tamano, String prefijo) {
+		if (galeria == null) {
+			return new PaginaHuellas();
+		}
+		tamano = tamano <= 0 ? maximoPagina : Math.min(tamano, maximoPagina);
+		return galeria.listar(cursor == null || cursor.isEmpty() ? null : cursor, tamano, prefijo);
+	}
+
+
+	/** Abre el almacen configurado: "archivos" (un archivo por huella en 'directorio')
+	 * o "segmentos" (segmentos append-only en 'directorio_segmentos') */
+	public int abrirAlmacen(ContextoPeticion contexto) {
+		try {
+			if ("segmentos".equals(propiedades.getProperty("almacen", "archivos"))) {
+				AlmacenSegmentos segmentos = new AlmacenSegmentos(
+						propiedades.getProperty("directorio_segmentos", directorio.concat("segmentos/")),
+						leerEntero("tamano_segmento_mb", 64) * 1024L * 1024L,
+						"si".equals(propiedades.getProperty("sincronizar_escrituras", "no")));
+				segmentos.setVerificarCrc(!"no".equals(propiedades.getProperty("verificar_crc", "si")));
+				almacen = segmentos;
+			}
+			else {
+				almacen = new AlmacenArchivos(directorio);
+			}
+			return 0;
+		} catch (IOException e) {
+			//e.printStackTrace();
+			contexto.agregarMensaje("No se pudo abrir el almacen de huellas");
+			return -1;
+		}
+	}
+
+	/** Enrola una unica vez en la galeria las huellas del almacen; la galeria
+	 * luego atiende todas las identificaciones */
+	public int cargarGaleria(ContextoPeticion contexto) {
+		if (almacen == null && abrirAlmacen(contexto) != 0) {
+			return -1;
+		}
+		galeria = new Galeria(directorio,
+				leerEntero("fragmentos", 1),
+				leerEntero("hilos_busqueda", Runtime.getRuntime().availableProcessors()));
+		galeria.setHilosCarga(leerEntero("hilos_carga", Runtime.getRuntime().availableProcessors()));
+		galeria.setBloqueCarga(leerEntero("bloque_carga", 1000));
+		galeria.setMaxCandidatos(leerEntero("max_candidatos", 10));
+		galeria.setUmbral(leerEntero("umbral", 40));
+		galeria.setReplicas(leerEntero("replicas_matcher", 2));
+		galeria.setHilosMatcher(leerEntero("hilos_matcher", 0));
+		primeraCoincidencia = "primera".equals(propiedades.getProperty("modo_identificacion", "mejor").trim());
+		puntajePrimera = Math.max(galeria.getUmbral(), leerEntero("puntaje_primera", 80));
+		String rutaPuntoControl = propiedades.getProperty("punto_control", "");
+		if (!rutaPuntoControl.trim().isEmpty()) {
+			puntoControl = new PuntoControl(rutaPuntoControl.trim());
+		}
+		try {
+			galeria.cargar(almacen, puntoControl);
+			contexto.agregarMensaje("Galeria cargada con " + galeria.getCantidad() + " huellas");
+			if (!galeria.getUltimaCarga().getFallas().isEmpty()) {
+				contexto.agregarMensaje(galeria.getUltimaCarga().getFallas().size()
+						+ " huellas no se pudieron cargar");
+			}
+		} catch (Throwable e) {
+			//e.printStackTrace();
+			contexto.agregarMensaje("No se pudo cargar la galeria de huellas");
+			return -1;
+		}
+
+		// Se observa el directorio para aplicar los cambios hechos por fuera del servidor
+		if (almacen instanceof AlmacenArchivos && !"no".equals(propiedades.getProperty("sincronizar_directorio", "si"))) {
+			sincronizador = new SincronizadorDirectorio(galeria,
+					leerEntero("espera_eventos_ms", 500),
+					leerEntero("reconciliacion_ms", 300000));
+			try {
+				sincronizador.iniciar();
+			} catch (IOException e) {
+				//e.printStackTrace();
+				contexto.agregarMensaje("No se puede observar el directorio de huellas");
+			}
+		}
+
+		// Se escribe periodicamente el punto de control, solo si la galeria cambio
+		if (puntoControl != null) {
+			long intervalo = leerEntero("intervalo_punto_control_s", 600);
+			tareas = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				public Thread newThread(Runnable r) {
+					Thread hilo = new Thread(r, "punto-control");
+					hilo.setDaemon(true);
+					return hilo;
+				}
+			});
+			tareas.scheduleWithFixedDelay(new Runnable() {
+				public void run() {
+					escribirPuntoControl();
+				}
+			}, intervalo, intervalo, TimeUnit.SECONDS);
+		}
+		return 0;
+	}
+
+
+	public int guardarHuella(ContextoPeticion contexto, String nombre, byte[] huellaBytes) throws Exception {
+		long admitida = admitir(contexto);
+		try {
+			if (!nombreValido(nombre)) {
+				contexto.agregarMensaje("El nombre de la huella esta vacio o es invalido");
+				return -1;
+			}
+			// Se comprueba calidad de la huella recibida
+			contexto.leerHuella(huellaBytes).dispose();
+
+			// Se concatena con el formato: time-nombre
+			String nomFinal = nombreArchivo(nombre);
+
+			// Se inicia el proceso de guardado en el almacen configurado
+			long marca;
+			try {
+				marca = almacen.guardar(nomFinal, new NBuffer(huellaBytes));
+			} catch (IOException e) {
+				//e.printStackTrace();
+				contexto.agregarMensaje("Problema con el nombre con "
+						+ "que se guarda o la ruta donde se guarda");
+				return -1;
+			}
+			contexto.agregarMensaje("Huella creada en: " + directorio + " con el nombre " + nomFinal);
+			System.out.println("Huella creada en: " + directorio + " con el nombre " + nomFinal);
+
+			// Se enrola solo la huella nueva en la galeria ya cargada
+			try {
+				galeria.agregar(nomFinal, new NBuffer(huellaBytes), marca);
+			} catch (Exception e) {
+				//e.printStackTrace();
+				contexto.agregarMensaje("La huella se guardo pero no pudo agregarse a la galeria");
+			}
+			return 0;
+		} finally {
+			liberar(admitida);
+		}
+	}
+
+	/** Guarda un lote de huellas: se validan todas, se escriben al almacen en una sola
+	 *  escritura agrupada y se enrolan en la galeria con una tarea por fragmento.
+	 *  Retorna un codigo por huella, ver InterServer.guardarHuellas */
+	public ArrayList<Integer> guardarHuellas(ContextoPeticion contexto, List<HuellaNueva> huellas) throws Exception {
+		long admitida = admitir(contexto);
+		try {
+			Integer[] codigos = new Integer[huellas.size()];
+			ArrayList<String> nombres = new ArrayList<String>();
+			ArrayList<NBuffer> plantillas = new ArrayList<NBuffer>();
+			ArrayList<Integer> posiciones = new ArrayList<Integer>();
+
+			// Se comprueba el nombre y la calidad de cada huella y se le asigna su nombre
+			// final: time-nombre. Una huella invalida solo se informa en su codigo
+			for (int i = 0; i < huellas.size(); i++) {
+				HuellaNueva huella = huellas.get(i);
+				if (huella == null || !nombreValido(huella.getNombre())) {
+					codigos[i] = -4;
+					continue;
+				}
+				if (!calidadSuficiente(huella.getHuella())) {
+					codigos[i] = -2;
+					continue;
+				}
+				nombres.add(nombreArchivo(huella.getNombre()));
+				plantillas.add(new NBuffer(huella.getHuella()));
+				posiciones.add(i);
+			}
+
+			// Una sola escritura al almacen para todo el lote
+			long[] marcasLote;
+			try {
+				marcasLote = almacen.guardarLote(nombres, plantillas);
+			} catch (IOException e) {
+				contexto.agregarMensaje("Problema con el nombre con "
+						+ "que se guarda o la ruta donde se guarda");
+				for (int posicion : posiciones) {
+					codigos[posicion] = -1;
+				}
+				return new ArrayList<Integer>(Arrays.asList(codigos));
+			}
+
+			// Se enrolan solo las huellas nuevas en la galeria ya cargada
+			boolean[] enroladas;
+			try {
+				enroladas = galeria.agregarLote(nombres, plantillas, marcasLote);
+			} catch (Exception e) {
+				// Las huellas quedan guardadas en el almacen; se registra por que no se enrolaron
+				contexto.agregarMensaje("Las huellas se guardaron pero no pudieron agregarse a la galeria");
+				contexto.fallo(e);
+				System.out.println("No se pudo enrolar el lote de " + nombres.size() + " huellas: " + e.getMessage());
+				enroladas = new boolean[nombres.size()];
+			}
+			int guardadas = 0;
+			for (int j = 0; j < posiciones.size(); j++) {
+				codigos[posiciones.get(j)] = enroladas[j] ? 0 : -3;
+				if (enroladas[j]) guardadas++;
+			}
+
+			contexto.agregarMensaje(guardadas + " de " + huellas.size() + " huellas guardadas y enroladas");
+			System.out.println(guardadas + " de " + huellas.size() + " huellas guardadas y enroladas");
+			return new ArrayList<Integer>(Arrays.asList(codigos));
+		} finally {
+			liberar(admitida);
+		}
+	}
+
+
+	/** Identifica con el modo configurado ('modo_identificacion'). Lanza
+	 *  SinCoincidenciaException si ninguna huella coincide y HuellaInvalidaException
+	 *  si la huella no sirve */
+	public String identificarHuella(ContextoPeticion contexto, byte[] huella) throws Exception {
+		return identificarHuella(contexto, huella, primeraCoincidencia, puntajePrimera);
+	}
+
+	/** Modo rapido: acepta la primera huella que alcance 'puntajeMinimo' sin buscar la
+	 *  mejor. Con 'puntajeMinimo' <= 0 se usa 'puntaje_primera' de la configuracion.
+	 *  Un puntaje menor al 'umbral' configurado se eleva al umbral: el cliente no puede
+	 *  aceptar coincidencias que el servidor rechazaria */
+	public String identificarHuellaPrimera(ContextoPeticion contexto, byte[] huella, int puntajeMinimo) throws Exception {
+		int puntaje = puntajeMinimo > 0 ? Math.max(puntajeMinimo, galeria.getUmbral()) : puntajePrimera;
+		return identificarHuella(contexto, huella, true, puntaje);
+	}
+
+	/** Las peticiones identicas (misma huella y mismo modo) que llegan mientras otra
+	 *  esta en curso comparten su busqueda; las que se repiten poco despues toman el
+	 *  resultado de la cache mientras la galeria no cambie */
+	private String identificarHuella(final ContextoPeticion contexto, final byte[] huella, final boolean primera,
+			final int puntajeMinimo) throws Exception {
+
+		// Antes de esperar una busqueda identica en curso
+		rechazarDesviada(contexto);
+		final String clave = (primera ? "primera-" + puntajeMinimo : "mejor") + ":" + AgrupadorBusquedas.resumen(huella);
+		CacheResultados.Entrada<String> guardado = resultados != null
+				? resultados.obtener(clave, galeria.getVersion()) : null;
+
+		String persona;
+		if (guardado != null) {
+			persona = guardado.getValor();
+		}
+		else {
+			persona = identificaciones.ejecutar(clave, new Callable<String>() {
+				public String call() throws Exception {
+					// La version se toma antes de buscar: si la galeria cambia durante la
+					// busqueda el resultado queda invalidado
+					long version = galeria.getVersion();
+					String encontrado = buscarHuella(contexto, huella, primera, puntajeMinimo);
+					if (resultados != null) {
+						resultados.guardar(clave, encontrado, version);
+					}
+					return encontrado;
+				}
+			});
+		}
+
+		/* Se evalua el resultado obtenido */
+		if (persona == null) {
+			// Solo el almacen de archivos depende del directorio de huellas
+			if (almacen instanceof AlmacenArchivos && !new File(directorio).exists()) {
+				throw contexto.error("Directorio no existe");
+			}
+			throw new SinCoincidenciaException(contexto.mensajeError("Ninguna huella hace match"));
+		}
+
+		contexto.agregarMensaje("Usted es: " + persona);
+		return persona;
+	}
+
+	/** Persona de la huella que coincide, o null si ninguna */
+	private String buscarHuella(ContextoPeticion contexto, byte[] huella, boolean primera,
+			int puntajeMinimo) throws Exception {
+		long admitida = admitir(contexto);
+		try {
+			// Se comprueba calidad de la huella recibida
+			NSubject subject = contexto.leerHuella(huella);
+
+			// Se inicia el proceso de identificacion contra la galeria ya enrolada
+			try {
+				return primera
+						? galeria.identificarPrimera(subject, puntajeMinimo)
+						: galeria.identificar(subject);
+			} finally {
+				subject.dispose();
+			}
+		} finally {
+			liberar(admitida);
+		}
+	}
+
+	/** Identifica un lote de huellas en una sola llamada. Retorna un resultado por
+	 *  huella, en el mismo orden; una huella invalida o sin coincidencia no hace
+	 *  fallar al resto del lote. Un lote de mas de 'max_lote_identificacion' huellas se
+	 *  rechaza entero: ocuparia un solo lugar de 'limite_peticiones' con el trabajo de
+	 *  muchas identificaciones */
+	public ArrayList<ResultadoIdentificacion> identificarHuellas(ContextoPeticion contexto,
+			List<byte[]> huellas) throws Exception {
+		if (huellas.size() > maximoLote) {
+			throw contexto.error("El lote tiene " + huellas.size() + " huellas, el maximo es " + maximoLote);
+		}
+		long admitida = admitir(contexto);
+		try {
+			ResultadoIdentificacion[] resultados = new ResultadoIdentificacion[huellas.size()];
+			ArrayList<NBuffer> validas = new ArrayList<NBuffer>();
+			ArrayList<Integer> posiciones = new ArrayList<Integer>();
+
+			// Se comprueba calidad de cada huella recibida
+			for (int i = 0; i < huellas.size(); i++) {
+				if (!calidadSuficiente(huellas.get(i))) {
+					resultados[i] = new ResultadoIdentificacion(null, 0,
+							"La huella enviada al servidor esta vacia o es de baja calidad");
+					continue;
+				}
+				validas.add(new NBuffer(huellas.get(i)));
+				posiciones.add(i);
+			}
+
+			// Se identifican todas las huellas validas en una sola pasada por la galeria
+			ResultadoIdentificacion[] encontrados = galeria.identificarLote(validas);
+			for (int j = 0; j < encontrados.length; j++) {
+				ResultadoIdentificacion resultado = encontrados[j];
+				if (resultado.getError() == null) {
+					if (resultado.getNombre() == null) {
+						resultado.setError("Ninguna huella hace match");
+					}
+				}
+				resultados[posiciones.get(j)] = resultado;
+			}
+
+			contexto.agregarMensaje("Identificacion de " + huellas.size() + " huellas terminada");
+			return new ArrayList<ResultadoIdentificacion>(Arrays.asList(resultados));
+		} finally {
+			liberar(admitida);
+		}
+	}
+
+	/** Retorna los candidatos de mayor puntaje, a lo sumo 'max_candidatos' */
+	public ArrayList<Candidato> identificarCandidatos(ContextoPeticion contexto, byte[] huella) throws Exception {
+		long admitida = admitir(contexto);
+		try {
+			NSubject subject = contexto.leerHuella(huella);
+			ArrayList<Candidato> candidatos;
+			try {
+				candidatos = galeria.candidatos(subject, galeria.getMaxCandidatos());
+			} finally {
+				subject.dispose();
+			}
+			contexto.agregarMensaje(candidatos.size() + " candidatos encontrados");
+			return candidatos;
+		} finally {
+			liberar(admitida);
+		}
+	}
+
+	/** Compara la huella solo contra las huellas enroladas con 'nombre' (1:1).
+	 *  Si no coincide retorna el resultado con coincide = false; si 'nombre' no tiene
+	 *  huellas lanza PersonaDesconocidaException */
+	public ResultadoVerificacion verificarHuella(ContextoPeticion contexto, String nombre,
+			byte[] huella) throws Exception {
+		long admitida = admitir(contexto);
+		try {
+			NSubject subject = contexto.leerHuella(huella);
+			ResultadoVerificacion resultado;
+			try {
+				resultado = galeria.verificar(nombre, subject);
+			} finally {
+				subject.dispose();
+			}
+			if (resultado == null) {
+				throw new PersonaDesconocidaException(contexto.mensajeError("No hay huellas enroladas para " + nombre));
+			}
+
+			if (resultado.isCoincide()) {
+				contexto.agregarMensaje("La huella corresponde a " + nombre);
+			}
+			else {
+				contexto.agregarMensaje("La huella no corresponde a " + nombre);
+			}
+			return resultado;
+		} finally {
+			liberar(admitida);
+		}
+	}
+
+
+	/** Escribe el punto de control de la galeria si hubo cambios desde el anterior */
+	public int escribirPuntoControl() {
+		if (puntoControl == null || galeria == null) {
+			return -1;
+		}
+		try {
+			int escritas = puntoControl.escribir(galeria);
+			if (escritas >= 0) {
+				System.out.println("Punto de control escrito con " + escritas + " huellas");
+			}
+			return 0;
+		} catch (Exception e) {
+			//e.printStackTrace();
+			System.out.println("No se pudo escribir el punto de control: " + e.getMessage());
+			return -1;
+		}
+	}
+
+	/** Detiene la sincronizacion, escribe el punto de control y cierra el almacen,
+	 * persistiendo su indice */
+	public void cerrar(ContextoPeticion contexto) {
+		if (sincronizador != null) {
+			sincronizador.detener();
+		}
+		if (tareas != null) {
+			tareas.shutdownNow();
+		}
+		escribirPuntoControl();
+		if (galeria != null) {
+			System.out.println(galeria.getEstadisticasMatchers());
+		}
+		if (resultados != null) {
+			System.out.println("Cache de identificaciones: " + resultados.getAciertos() + " aciertos, "
+					+ resultados.getFallos() + " fallos");
+		}
+		System.out.println("Identificaciones ejecutadas: " + identificaciones.getEjecutadas()
+				+ ", compartidas con una identica en curso: " + identificaciones.getCompartidas());
+		if (admision != null) {
+			System.out.println("Peticiones admitidas: " + admision.getAdmitidas()
+					+ ", rechazadas por servidor ocupado: " + admision.getRechazadas());
+		}
+		if (almacen != null) {
+			try {
+				almacen.cerrar();
+			} catch (IOException e) {
+				//e.printStackTrace();
+				contexto.agregarMensaje("No se pudo cerrar el almacen de huellas");
+			}
+		}
+	}
+
+
+	/** Espera un lugar para atender una peticion pesada. Retorna el momento de la
+	 *  admision, que hay que pasar a liberar() al terminar */
+	private long admitir(ContextoPeticion contexto) throws Exception {
+		rechazarDesviada(contexto);
+		if (admision == null) {
+			return 0;
+		}
+		try {
+			return admision.entrar();
+		} catch (ServidorOcupadoException e) {
+			contexto.agregarMensaje(e.getMessage());
+			throw e;
+		}
+	}
+
+	/** Una peticion que llego con la cola del ejecutor llena se rechaza sin trabajar,
+	 *  ver Ejecutores.isDesviada() */
+	private void rechazarDesviada(ContextoPeticion contexto) throws ServidorOcupadoException {
+		if (Ejecutores.isDesviada()) {
+			ServidorOcupadoException e = new ServidorOcupadoException("Servidor ocupado, intente mas tarde");
+			contexto.agregarMensaje(e.getMessage());
+			throw e;
+		}
+	}
+
+	private void liberar(long admitida) {
+		if (admision != null) {
+			admision.salir(admitida);
+		}
+	}
+
+	/** Lee una propiedad numerica, o retorna 'defecto' si no esta o no es valida */
+	public int leerEntero(String clave, int defecto) {
+		try {
+			return Integer.parseInt(propiedades.getProperty(clave).trim());
+		} catch (Exception e) {
+			return defecto;
+		}
+	}
+
+	/** Nombre de archivo con el formato time-nombre. El tiempo nunca se repite, aunque
+	 *  dos peticiones guarden en el mismo instante */
+	private String nombreArchivo(String nombre) {
+		while (true) {
+			long anterior = ultimoTiempo.get();
+			long time = Math.max(anterior + 1, System.nanoTime());
+			if (ultimoTiempo.compareAndSet(anterior, time)) {
+				return Long.toString(time).concat("-").concat(nombre);
+			}
+		}
+	}
+
+	/** El nombre se usa como nombre de archivo y como persona: no puede estar vacio,
+	 *  tener separadores de ruta ni caracteres de control */
+	private static boolean nombreValido(String nombre) {
+		if (nombre == null || nombre.trim().isEmpty() || nombre.length() > MAXIMO_NOMBRE) {
+			return false;
+		}
+		for (int i = 0; i < nombre.length(); i++) {
+			char c = nombre.charAt(i);
+			if (c < ' ' || c == '/' || c == '\\') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/** Comprueba la calidad de una huella con un sujeto temporal */
+	private static boolean calidadSuficiente(byte[] huella) {
+		NSubject subject = new NSubject();
+		try {
+			subject.setTemplateBuffer(new NBuffer(huella));
+			return !subject.getFingers().isEmpty();
+		} catch (Exception e) {
+			return false;
+		} finally {
+			subject.dispose();
+		}
+	}
+}
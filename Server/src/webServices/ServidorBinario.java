@@ -0,0 +1,377 @@
+package webServices;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import local.RegistroOperaciones;
+import local.ResultadoVerificacion;
+
+
+/** Servidor TCP con un protocolo binario para identificar, verificar y guardar huellas
+ *  sin el costo de SOAP/XML. Atiende sobre el mismo nucleo (ServicioHuellas) que el
+ *  web service.
+ *  Cada mensaje es [int longitud][int id][byte operacion o estado][cuerpo], donde
+ *  'longitud' no cuenta el propio entero. Un cliente puede enviar varias peticiones
+ *  seguidas por la misma conexion sin esperar las respuestas; cada respuesta lleva el
+ *  id de su peticion y pueden llegar en otro orden. Los textos van en UTF-8 */
+public class ServidorBinario implements Runnable {
+
+	/** Cuerpo: huella. Respuesta: nombre de la persona */
+	public static final byte IDENTIFICAR = 1;
+	/** Cuerpo: [int n][nombre, n bytes][huella]. Respuesta: [byte coincide][int puntaje] */
+	public static final byte VERIFICAR = 2;
+	/** Cuerpo: [int n][nombre, n bytes][huella]. Respuesta: [int codigo de guardarHuella] */
+	public static final byte GUARDAR = 3;
+
+	/** Respuesta con el resultado de la operacion */
+	public static final byte OK = 0;
+	/** Cuerpo: mensaje del error */
+	public static final byte ERROR = 1;
+	/** Cuerpo: mensaje. El servidor esta ocupado, se puede reintentar mas tarde */
+	public static final byte OCUPADO = 2;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final int MAXIMO_MENSAJE = 1 << 20;	/** Mayor longitud aceptada, se cierra la conexion si se excede */
+	private static final int MAXIMO_EN_CURSO = 64;		/** Respuestas pendientes por conexion antes de dejar de leerla */
+
+	private ServicioHuellas servicio;		/** Nucleo compartido con el web service */
+	private RegistroOperaciones registro;	/** Historial de operaciones del servidor */
+	private ExecutorService ejecutor;		/** Hilos que atienden las peticiones */
+	private Selector selector;				/** Atiende todas las conexiones desde un solo hilo */
+	private ServerSocketChannel canal;		/** Canal que acepta las conexiones */
+	private ConcurrentLinkedQueue<Conexion> respondidas;	/** Conexiones con respuestas nuevas para escribir */
+	private volatile boolean activo;
+	private Thread hilo;
+
+
+	/** Conexion abierta. 'lectura' solo la usa el hilo del selector; las respuestas las
+	 *  agregan los hilos del ejecutor y las escribe el hilo del selector */
+	private static class Conexion {
+		final SocketChannel canal;
+		final SelectionKey clave;
+		ByteBuffer lectura = ByteBuffer.allocate(8192);
+		final ConcurrentLinkedQueue<ByteBuffer> salida = new ConcurrentLinkedQueue<ByteBuffer>();
+		final AtomicInteger enCurso = new AtomicInteger();	/** Peticiones leidas cuya respuesta no se ha escrito */
+
+		Conexion(SocketChannel canal, SelectionKey clave) {
+			this.canal = canal;
+			this.clave = clave;
+		}
+	}
+
+
+	public ServidorBinario(ServicioHuellas servicio, RegistroOperaciones registro, ExecutorService ejecutor) {
+		this.servicio = servicio;
+		this.registro = registro;
+		this.ejecutor = ejecutor;
+		this.respondidas = new ConcurrentLinkedQueue<Conexion>();
+	}
+
+	/** Abre el puerto y empieza a atender conexiones en un hilo propio */
+	public void iniciar(String ip, int puerto) throws IOException {
+		selector = Selector.open();
+		canal = ServerSocketChannel.open();
+		canal.configureBlocking(false);
+		canal.socket().setReuseAddress(true);
+		canal.socket().bind(ip == null ? new InetSocketAddress(puerto) : new InetSocketAddress(ip, puerto));
+		canal.register(selector, SelectionKey.OP_ACCEPT);
+
+		activo = true;
+		hilo = new Thread(this, "servidor-binario");
+		hilo.setDaemon(true);
+		hilo.start();
+		System.out.println("Servidor binario escuchando en el puerto " + puerto);
+	}
+
+	/** Deja de aceptar peticiones y cierra todas las conexiones */
+	public void detener() {
+		activo = false;
+		if (selector != null) {
+			selector.wakeup();
+		}
+		if (hilo != null) {
+			try {
+				hilo.join(5000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+
+	public void run() {
+		try {
+			while (activo) {
+				selector.select();
+
+				// Respuestas terminadas por el ejecutor desde la ultima vuelta
+				Conexion respondida;
+				while ((respondida = respondidas.poll()) != null) {
+					try {
+						escribir(respondida);
+					} catch (IOException e) {
+						cerrar(respondida.clave);
+					}
+				}
+
+				Iterator<SelectionKey> claves = selector.selectedKeys().iterator();
+				while (claves.hasNext()) {
+					SelectionKey clave = claves.next();
+					claves.remove();
+					try {
+						if (!clave.isValid()) {
+							continue;
+						}
+						if (clave.isAcceptable()) {
+							aceptar();
+							continue;
+						}
+						if (clave.isReadable()) {
+							leer((Conexion) clave.attachment());
+						}
+						if (clave.isValid() && clave.isWritable()) {
+							escribir((Conexion) clave.attachment());
+						}
+					} catch (IOException e) {
+						cerrar(clave);
+					}
+				}
+			}
+		} catch (IOException e) {
+			System.out.println("El servidor binario se detuvo: " + e.getMessage());
+		} catch (ClosedSelectorException e) {
+			// Se cerro al detener el servidor
+		} finally {
+			cerrarTodo();
+		}
+	}
+
+	private void aceptar() throws IOException {
+		SocketChannel cliente = canal.accept();
+		if (cliente == null) {
+			return;
+		}
+		cliente.configureBlocking(false);
+		cliente.socket().setTcpNoDelay(true);
+		SelectionKey clave = cliente.register(selector, SelectionKey.OP_READ);
+		clave.attach(new Conexion(cliente, clave));
+	}
+
+	/** Lee lo disponible y despacha los mensajes completos */
+	private void leer(Conexion conexion) throws IOException {
+		if (conexion.canal.read(conexion.lectura) < 0) {
+			throw new EOFException();
+		}
+		procesar(conexion);
+	}
+
+	/** Despacha los mensajes completos del buffer mientras la conexion tenga menos de
+	 *  MAXIMO_EN_CURSO peticiones en curso; los demas, y lo que queda de un mensaje
+	 *  incompleto, se conservan hasta que se escriban respuestas */
+	private void procesar(Conexion conexion) throws IOException {
+		ByteBuffer buffer = conexion.lectura;
+		buffer.flip();
+		while (buffer.remaining() >= 4 && conexion.enCurso.get() < MAXIMO_EN_CURSO) {
+			int longitud = buffer.getInt(buffer.position());
+			if (longitud < 5 || longitud > MAXIMO_MENSAJE) {
+				throw new IOException("Mensaje de longitud invalida: " + longitud);
+			}
+			if (buffer.remaining() < 4 + longitud) {
+				break;
+			}
+			buffer.getInt();
+			int id = buffer.getInt();
+			byte operacion = buffer.get();
+			byte[] cuerpo = new byte[longitud - 5];
+			buffer.get(cuerpo);
+			despachar(conexion, id, operacion, cuerpo);
+		}
+
+		// Si el mensaje pendiente no cabe en el buffer se reemplaza por uno mayor
+		int necesario = buffer.remaining() >= 4 ? 4 + buffer.getInt(buffer.position()) : 0;
+		if (necesario > buffer.capacity()) {
+			ByteBuffer mayor = ByteBuffer.allocate(necesario);
+			mayor.put(buffer);
+			conexion.lectura = mayor;
+		}
+		else {
+			buffer.compact();
+		}
+		actualizarInteres(conexion);
+	}
+
+	/** Si el ejecutor no acepta la peticion se responde OCUPADO; nunca se atiende en el
+	 *  hilo del selector, que es el unico que atiende todas las conexiones */
+	private void despachar(final Conexion conexion, final int id, final byte operacion, final byte[] cuerpo)
+			throws IOException {
+		conexion.enCurso.incrementAndGet();
+		try {
+			ejecutor.execute(new Runnable() {
+				public void run() {
+					conexion.salida.add(atender(id, operacion, cuerpo));
+					respondidas.add(conexion);
+					selector.wakeup();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			if (ejecutor.isShutdown()) {
+				throw new IOException("El servidor se esta deteniendo");
+			}
+			String mensaje = "Servidor ocupado, intente mas tarde";
+			registro.registrar(nombreOperacion(operacion), mensaje, 0, true);
+			conexion.salida.add(respuesta(id, OCUPADO, mensaje.getBytes(UTF8)));
+		}
+	}
+
+	/** Escribe las respuestas que el canal acepte sin bloquear */
+	private void escribir(Conexion conexion) throws IOException {
+		if (!conexion.clave.isValid()) {
+			return;
+		}
+		ByteBuffer respuesta;
+		while ((respuesta = conexion.salida.peek()) != null) {
+			conexion.canal.write(respuesta);
+			if (respuesta.hasRemaining()) {
+				break;
+			}
+			conexion.salida.poll();
+			conexion.enCurso.decrementAndGet();
+		}
+		// Los mensajes que quedaron en el buffer por el limite de peticiones en curso
+		procesar(conexion);
+	}
+
+	/** Se deja de leer una conexion con demasiadas peticiones en curso, asi un cliente
+	 *  no puede acumular respuestas sin limite; se espera escritura solo si hay algo
+	 *  pendiente */
+	private void actualizarInteres(Conexion conexion) {
+		if (!conexion.clave.isValid()) {
+			return;
+		}
+		int interes = 0;
+		if (conexion.enCurso.get() < MAXIMO_EN_CURSO) {
+			interes |= SelectionKey.OP_READ;
+		}
+		if (!conexion.salida.isEmpty()) {
+			interes |= SelectionKey.OP_WRITE;
+		}
+		conexion.clave.interestOps(interes);
+	}
+
+	private void cerrar(SelectionKey clave) {
+		clave.cancel();
+		try {
+			clave.channel().close();
+		} catch (IOException e) {
+			// Ya estaba cerrada
+		}
+	}
+
+	private void cerrarTodo() {
+		try {
+			for (SelectionKey clave : selector.keys()) {
+				cerrar(clave);
+			}
+			selector.close();
+		} catch (IOException e) {
+			// Se cierra de todos modos
+		} catch (ClosedSelectorException e) {
+			// Ya estaba cerrado
+		}
+		try {
+			canal.close();
+		} catch (IOException e) {
+			// Ya estaba cerrado
+		}
+	}
+
+
+	/** Atiende una peticion en un hilo del ejecutor y retorna la respuesta lista para
+	 *  escribir */
+	private ByteBuffer atender(int id, byte operacion, byte[] cuerpo) {
+		ContextoPeticion contexto = new ContextoPeticion(nombreOperacion(operacion));
+		try {
+			ByteBuffer entrada = ByteBuffer.wrap(cuerpo);
+			switch (operacion) {
+			case IDENTIFICAR:
+				return respuesta(id, OK, servicio.identificarHuella(contexto, cuerpo).getBytes(UTF8));
+
+			case VERIFICAR: {
+				String nombre = leerTexto(contexto, entrada);
+				ResultadoVerificacion resultado = servicio.verificarHuella(contexto, nombre, resto(entrada));
+				ByteBuffer datos = ByteBuffer.allocate(5);
+				datos.put((byte) (resultado.isCoincide() ? 1 : 0)).putInt(resultado.getPuntaje());
+				return respuesta(id, OK, datos.array());
+			}
+
+			case GUARDAR: {
+				String nombre = leerTexto(contexto, entrada);
+				int codigo = servicio.guardarHuella(contexto, nombre, resto(entrada));
+				return respuesta(id, OK, ByteBuffer.allocate(4).putInt(codigo).array());
+			}
+
+			default:
+				throw contexto.error("Operacion desconocida: " + operacion);
+			}
+		} catch (ServidorOcupadoException e) {
+			contexto.fallo(e);
+			return respuesta(id, OCUPADO, e.getMessage().getBytes(UTF8));
+		} catch (Exception e) {
+			contexto.fallo(e);
+			String texto = e.getMessage() == null ? e.toString() : e.getMessage().trim();
+			return respuesta(id, ERROR, texto.getBytes(UTF8));
+		} finally {
+			registro.registrar(contexto.getOperacion(), contexto.getMensaje().trim(), contexto.getDuracion(),
+					contexto.isError());
+		}
+	}
+
+	private static ByteBuffer respuesta(int id, byte estado, byte[] cuerpo) {
+		ByteBuffer respuesta = ByteBuffer.allocate(9 + cuerpo.length);
+		respuesta.putInt(5 + cuerpo.length).putInt(id).put(estado).put(cuerpo);
+		respuesta.flip();
+		return respuesta;
+	}
+
+	private static String leerTexto(ContextoPeticion contexto, ByteBuffer entrada) throws Exception {
+		int longitud = entrada.remaining() >= 4 ? entrada.getInt() : -1;
+		if (longitud < 0 || longitud > entrada.remaining()) {
+			throw contexto.error("Peticion mal formada");
+		}
+		String texto = new String(entrada.array(), entrada.position(), longitud, UTF8);
+		entrada.position(entrada.position() + longitud);
+		return texto;
+	}
+
+	private static byte[] resto(ByteBuffer entrada) {
+		return Arrays.copyOfRange(entrada.array(), entrada.position(), entrada.limit());
+	}
+
+	/** Mismos nombres que las operaciones del web service, para el historial */
+	private static String nombreOperacion(byte operacion) {
+		switch (operacion) {
+		case IDENTIFICAR:
+			return "identificarHuella";
+		case VERIFICAR:
+			return "verificarHuella";
+		case GUARDAR:
+			return "guardarHuella";
+		default:
+			return "desconocida";
+		}
+	}
+}
@@ -0,0 +1,290 @@
+package webServices;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import local.PaginaHuellas;
+import local.RegistroOperaciones;
+import local.ResultadoVerificacion;
+
+
+/** Fachada JSON sobre HTTP para los clientes que no hablan SOAP; no hay WSDL que
+ *  descargar. Atiende sobre el mismo nucleo (ServicioHuellas) que el web service.
+ *  Las huellas se envian como cuerpo binario (application/octet-stream) y las
+ *  respuestas son JSON:
+ *    POST /huellas/identificar              {"nombre": "..."}, null si ninguna coincide
+ *    POST /huellas/verificar?nombre=...     {"nombre": "...", "puntaje": n, "coincide": b}
+ *    POST /huellas/guardar?nombre=...       {"codigo": n}, ver InterServer.guardarHuella
+ *    GET  /huellas?cursor=&tamano=&prefijo= {"huellas": ["...", ...], "cursor": "..."}
+ *  El listado es por paginas, ver InterServer.listarHuellas; los tres parametros son
+ *  opcionales y el cursor es null en la ultima pagina.
+ *  Un error responde {"error": "..."} con 400 si la peticion o la huella son
+ *  invalidas, 404 al verificar un nombre sin huellas enroladas, 503 si el servidor
+ *  esta ocupado y 500 en los demas casos. Las conexiones se mantienen
+ *  abiertas entre peticiones (HTTP/1.1 keep-alive) */
+public class ServidorJson implements HttpHandler {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final String RAIZ = "/huellas";
+	private static final int MAXIMO_CUERPO = 1 << 20;	/** Mayor huella aceptada, en bytes */
+	private static final int REINTENTAR_S = 1;			/** Segundos sugeridos en Retry-After cuando esta ocupado */
+
+	private ServicioHuellas servicio;		/** Nucleo compartido con el web service */
+	private RegistroOperaciones registro;	/** Historial de operaciones del servidor */
+	private HttpServer servidor;
+
+
+	/** Peticion rechazada antes de llegar al servicio: codigo HTTP y mensaje */
+	private static class PeticionInvalida extends Exception {
+		private static final long serialVersionUID = 1L;
+		private int codigo;
+
+		PeticionInvalida(int codigo, String mensaje) {
+			super(mensaje);
+			this.codigo = codigo;
+		}
+	}
+
+
+	public ServidorJson(ServicioHuellas servicio, RegistroOperaciones registro) {
+		this.servicio = servicio;
+		this.registro = registro;
+	}
+
+	/** Abre el puerto; con 'ejecutor' null se usa el del servidor HTTP del JDK */
+	public void iniciar(String ip, int puerto, ExecutorService ejecutor) throws IOException {
+		servidor = HttpServer.create(ip == null ? new InetSocketAddress(puerto) : new InetSocketAddress(ip, puerto), 0);
+		servidor.createContext(RAIZ, this);
+		servidor.setExecutor(ejecutor);
+		servidor.start();
+		System.out.println("Servidor JSON escuchando en el puerto " + puerto);
+	}
+
+	public void detener() {
+		if (servidor != null) {
+			servidor.stop(1);
+		}
+	}
+
+
+	public void handle(HttpExchange intercambio) throws IOException {
+		String ruta = intercambio.getRequestURI().getPath();
+		String metodo = intercambio.getRequestMethod();
+		String operacion = ruta.startsWith(RAIZ + "/") ? ruta.substring(RAIZ.length() + 1)
+				: ruta.equals(RAIZ) ? "" : ruta;
+		ContextoPeticion contexto = new ContextoPeticion(nombreOperacion(operacion));
+		try {
+			if ("desconocida".equals(contexto.getOperacion())) {
+				throw new PeticionInvalida(404, "Operacion desconocida: " + ruta);
+			}
+			if (!metodo.equals(operacion.isEmpty() ? "GET" : "POST")) {
+				throw new PeticionInvalida(405, "Metodo no permitido: " + metodo);
+			}
+
+			if (operacion.isEmpty()) {
+				PaginaHuellas pagina = servicio.listarHuellas(opcional(intercambio, "cursor"),
+						entero(opcional(intercambio, "tamano")), opcional(intercambio, "prefijo"));
+				responder(intercambio, 200, "{\"huellas\": " + arreglo(pagina.getNombres())
+						+ ", \"cursor\": " + texto(pagina.getCursor()) + "}");
+			}
+			else if ("identificar".equals(operacion)) {
+				String nombre = servicio.identificarHuella(contexto, leerCuerpo(intercambio));
+				responder(intercambio, 200, "{\"nombre\": " + texto(nombre) + "}");
+			}
+			else if ("verificar".equals(operacion)) {
+				ResultadoVerificacion resultado = servicio.verificarHuella(contexto,
+						parametro(intercambio, "nombre"), leerCuerpo(intercambio));
+				responder(intercambio, 200, "{\"nombre\": " + texto(resultado.getNombre())
+						+ ", \"puntaje\": " + resultado.getPuntaje()
+						+ ", \"coincide\": " + resultado.isCoincide() + "}");
+			}
+			else {
+				int codigo = servicio.guardarHuella(contexto, parametro(intercambio, "nombre"),
+						leerCuerpo(intercambio));
+				responder(intercambio, 200, "{\"codigo\": " + codigo + "}");
+			}
+		} catch (PeticionInvalida e) {
+			contexto.fallo(e);
+			responderError(intercambio, e.codigo, e.getMessage());
+		} catch (SinCoincidenciaException e) {
+			contexto.fallo(e);
+			responder(intercambio, 200, "{\"nombre\": null}");
+		} catch (HuellaInvalidaException e) {
+			contexto.fallo(e);
+			responderError(intercambio, 400, e.getMessage().trim());
+		} catch (PersonaDesconocidaException e) {
+			contexto.fallo(e);
+			responderError(intercambio, 404, e.getMessage().trim());
+		} catch (ServidorOcupadoException e) {
+			contexto.fallo(e);
+			intercambio.getResponseHeaders().set("Retry-After", String.valueOf(REINTENTAR_S));
+			responderError(intercambio, 503, e.getMessage());
+		} catch (Exception e) {
+			contexto.fallo(e);
+			responderError(intercambio, 500, e.getMessage() == null ? e.toString() : e.getMessage().trim());
+		} finally {
+			registro.registrar(contexto.getOperacion(), contexto.getMensaje().trim(), contexto.getDuracion(),
+					contexto.isError());
+			intercambio.close();
+		}
+	}
+
+
+	/** Lee todo el cuerpo; debe terminar de leerse para que la conexion se pueda reusar */
+	private static byte[] leerCuerpo(HttpExchange intercambio) throws IOException, PeticionInvalida {
+		String largo = intercambio.getRequestHeaders().getFirst("Content-Length");
+		int esperado = 0;
+		if (largo != null) {
+			try {
+				esperado = Integer.parseInt(largo.trim());
+			} catch (NumberFormatException e) {
+				throw new PeticionInvalida(400, "Content-Length invalido: " + largo);
+			}
+		}
+		if (esperado > MAXIMO_CUERPO) {
+			throw new PeticionInvalida(413, "La huella excede " + MAXIMO_CUERPO + " bytes");
+		}
+
+		InputStream entrada = intercambio.getRequestBody();
+		ByteArrayOutputStream cuerpo = new ByteArrayOutputStream(esperado > 0 ? esperado : 4096);
+		byte[] bloque = new byte[8192];
+		int leidos;
+		while ((leidos = entrada.read(bloque)) != -1) {
+			if (cuerpo.size() + leidos > MAXIMO_CUERPO) {
+				throw new PeticionInvalida(413, "La huella excede " + MAXIMO_CUERPO + " bytes");
+			}
+			cuerpo.write(bloque, 0, leidos);
+		}
+		return cuerpo.toByteArray();
+	}
+
+	/** Valor del parametro 'nombre' de la URL; es obligatorio */
+	private static String parametro(HttpExchange intercambio, String nombre) throws PeticionInvalida {
+		String valor = opcional(intercambio, nombre);
+		if (valor == null) {
+			throw new PeticionInvalida(400, "Falta el parametro '" + nombre + "'");
+		}
+		return valor;
+	}
+
+	/** Valor del parametro 'nombre' de la URL, null si no esta */
+	private static String opcional(HttpExchange intercambio, String nombre) throws PeticionInvalida {
+		String consulta = intercambio.getRequestURI().getRawQuery();
+		if (consulta != null) {
+			for (String par : consulta.split("&")) {
+				int igual = par.indexOf('=');
+				if (igual > 0 && par.substring(0, igual).equals(nombre)) {
+					try {
+						return URLDecoder.decode(par.substring(igual + 1), "UTF-8");
+					} catch (UnsupportedEncodingException e) {
+						throw new IllegalStateException(e);
+					} catch (IllegalArgumentException e) {
+						throw new PeticionInvalida(400, "Parametro '" + nombre + "' mal codificado");
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	/** 0 si no se envio el parametro */
+	private static int entero(String valor) throws PeticionInvalida {
+		if (valor == null || valor.isEmpty()) {
+			return 0;
+		}
+		try {
+			return Integer.parseInt(valor);
+		} catch (NumberFormatException e) {
+			throw new PeticionInvalida(400, "Numero invalido: " + valor);
+		}
+	}
+
+	/** Responde con Content-Length conocido, asi la conexion queda abierta para la
+	 *  siguiente peticion */
+	private static void responder(HttpExchange intercambio, int codigo, String json) throws IOException {
+		byte[] datos = json.getBytes(UTF8);
+		intercambio.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+		intercambio.sendResponseHeaders(codigo, datos.length);
+		OutputStream salida = intercambio.getResponseBody();
+		salida.write(datos);
+		salida.close();
+	}
+
+	private static void responderError(HttpExchange intercambio, int codigo, String mensaje) throws IOException {
+		responder(intercambio, codigo, "{\"error\": " + texto(mensaje) + "}");
+	}
+
+
+	private static String arreglo(List<String> valores) {
+		StringBuilder json = new StringBuilder("[");
+		for (int i = 0; i < valores.size(); i++) {
+			if (i > 0) {
+				json.append(", ");
+			}
+			json.append(texto(valores.get(i)));
+		}
+		return json.append("]").toString();
+	}
+
+	/** Cadena JSON con las comillas y los caracteres de control escapados */
+	private static String texto(String valor) {
+		if (valor == null) {
+			return "null";
+		}
+		StringBuilder json = new StringBuilder(valor.length() + 2).append('"');
+		for (int i = 0; i < valor.length(); i++) {
+			char c = valor.charAt(i);
+			switch (c) {
+			case '"':
+				json.append("\\\"");
+				break;
+			case '\\':
+				json.append("\\\\");
+				break;
+			case '\n':
+				json.append("\\n");
+				break;
+			case '\r':
+				json.append("\\r");
+				break;
+			case '\t':
+				json.append("\\t");
+				break;
+			default:
+				if (c < 0x20) {
+					json.append(String.format("\\u%04x", (int) c));
+				}
+				else {
+					json.append(c);
+				}
+			}
+		}
+		return json.append('"').toString();
+	}
+
+	/** Mismos nombres que las operaciones del web service, para el historial */
+	private static String nombreOperacion(String operacion) {
+		if ("identificar".equals(operacion)) {
+			return "identificarHuella";
+		}
+		if ("verificar".equals(operacion)) {
+			return "verificarHuella";
+		}
+		if ("guardar".equals(operacion)) {
+			return "guardarHuella";
+		}
+		return operacion.isEmpty() ? "listarHuellas" : "desconocida";
+	}
+}
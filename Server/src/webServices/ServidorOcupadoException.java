@@ -0,0 +1,13 @@
+package webServices;
+
+
+/** El servidor rechazo la peticion porque ya atiende el maximo de peticiones y la
+ *  cola de espera esta llena. El cliente puede reintentar mas tarde */
+public class ServidorOcupadoException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	public ServidorOcupadoException(String mensaje) {
+		super(mensaje);
+	}
+}
@@ -0,0 +1,13 @@
+package webServices;
+
+
+/** Ninguna huella enrolada coincide con la enviada. No es una falla del servidor:
+ *  la persona no esta enrolada o la huella no alcanzo el umbral */
+public class SinCoincidenciaException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	public SinCoincidenciaException(String mensaje) {
+		super(mensaje);
+	}
+}
@@ -0,0 +1,156 @@
+package local;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+
+
+/** Pruebas de recuperacion de AlmacenSegmentos al abrir despues de una caida. Las
+ *  plantillas se guardan como arreglos, sin NBuffer, asi no hacen falta las librerias
+ *  nativas. Una falla termina con AssertionError */
+public class PruebaAlmacenSegmentos {
+
+	private static final int CABECERA = 4 + 4;		/** largo + crc, ver AlmacenSegmentos */
+	private static final int FIJO = 1 + 8 + 2;		/** tipo + secuencia + largoClave */
+	private static final int DATOS = 100;			/** Bytes de cada plantilla de prueba */
+	private static final int REGISTRO = CABECERA + FIJO + "1-Ana".length() + DATOS;
+
+
+	public static void main(String[] args) throws Exception {
+		probarReabrir();
+		probarColaCortada();
+		probarCrcEnMedio();
+		System.out.println("PruebaAlmacenSegmentos: OK");
+	}
+
+
+	private static void probarReabrir() throws Exception {
+		File directorio = Files.createTempDirectory("segmentos").toFile();
+		try {
+			AlmacenSegmentos almacen = abrir(directorio);
+			long marca = almacen.guardar("1-Ana", plantilla(1));
+			almacen.guardar("2-Eva", plantilla(2));
+			almacen.eliminar("2-Eva");
+			almacen.cerrar();
+
+			almacen = abrir(directorio);
+			comprobar(almacen.getCantidad() == 1, "cantidad al reabrir");
+			comprobar(almacen.getMarca("1-Ana") == marca, "marca al reabrir");
+			comprobar(!almacen.contiene("2-Eva"), "el borrado se mantiene");
+			comprobar(almacen.getSecuencia() == 3, "secuencia al reabrir");
+			almacen.cerrar();
+		} finally {
+			borrar(directorio);
+		}
+	}
+
+	/** Una escritura interrumpida deja el ultimo registro incompleto: se descarta, se
+	 *  aparta a cuarentena y se sigue escribiendo desde el ultimo registro legible */
+	private static void probarColaCortada() throws Exception {
+		File directorio = Files.createTempDirectory("segmentos").toFile();
+		try {
+			guardarTres(directorio);
+			File segmento = new File(directorio, "segmento-000001.dat");
+			RandomAccessFile archivo = new RandomAccessFile(segmento, "rw");
+			try {
+				archivo.setLength(3 * REGISTRO - 10);
+			} finally {
+				archivo.close();
+			}
+
+			AlmacenSegmentos almacen = abrir(directorio);
+			comprobar(almacen.contiene("1-Ana") && almacen.contiene("2-Eva"), "los registros completos quedan");
+			comprobar(!almacen.contiene("3-Sol"), "el registro cortado se descarta");
+			comprobar(segmento.length() == 2 * REGISTRO, "el segmento se corta en el ultimo registro legible");
+			comprobar(cuarentenas(directorio) == 1, "la cola cortada se aparta");
+
+			almacen.guardar("4-Leo", plantilla(4));
+			almacen.cerrar();
+			almacen = abrir(directorio);
+			comprobar(almacen.getCantidad() == 3 && almacen.contiene("4-Leo"), "se escribe despues de recuperar");
+			almacen.cerrar();
+		} finally {
+			borrar(directorio);
+		}
+	}
+
+	/** Un registro danado en medio del segmento, con su largo intacto, se omite y se
+	 *  siguen leyendo los que estan despues */
+	private static void probarCrcEnMedio() throws Exception {
+		File directorio = Files.createTempDirectory("segmentos").toFile();
+		try {
+			guardarTres(directorio);
+			File segmento = new File(directorio, "segmento-000001.dat");
+			RandomAccessFile archivo = new RandomAccessFile(segmento, "rw");
+			try {
+				long posicion = REGISTRO + REGISTRO - DATOS / 2;
+				archivo.seek(posicion);
+				int original = archivo.read();
+				archivo.seek(posicion);
+				archivo.write(original ^ 0xFF);
+			} finally {
+				archivo.close();
+			}
+
+			AlmacenSegmentos almacen = abrir(directorio);
+			comprobar(almacen.contiene("1-Ana") && almacen.contiene("3-Sol"), "los registros sanos quedan");
+			comprobar(!almacen.contiene("2-Eva"), "el registro danado se omite");
+			comprobar(segmento.length() == 3 * REGISTRO, "no se corta el segmento");
+			comprobar(cuarentenas(directorio) == 0, "no hay nada que apartar");
+			comprobar(almacen.getSecuencia() == 3, "la secuencia sigue la del ultimo registro");
+			almacen.cerrar();
+		} finally {
+			borrar(directorio);
+		}
+	}
+
+
+	/** Tres registros y una caida antes de guardar el indice: al abrir se recorre todo */
+	private static void guardarTres(File directorio) throws IOException {
+		AlmacenSegmentos almacen = abrir(directorio);
+		almacen.guardar("1-Ana", plantilla(1));
+		almacen.guardar("2-Eva", plantilla(2));
+		almacen.guardar("3-Sol", plantilla(3));
+		almacen.cerrar();
+		comprobar(new File(directorio, "indice.idx").delete(), "se borra el indice");
+	}
+
+	private static AlmacenSegmentos abrir(File directorio) throws IOException {
+		return new AlmacenSegmentos(directorio.getPath(), 1024 * 1024, false);
+	}
+
+	private static byte[] plantilla(int semilla) {
+		byte[] datos = new byte[DATOS];
+		for (int i = 0; i < datos.length; i++) {
+			datos[i] = (byte) (semilla * 31 + i);
+		}
+		return datos;
+	}
+
+	private static int cuarentenas(File directorio) {
+		int cantidad = 0;
+		for (String nombre : directorio.list()) {
+			if (nombre.endsWith(".cuarentena")) {
+				cantidad++;
+			}
+		}
+		return cantidad;
+	}
+
+	private static void borrar(File directorio) {
+		File[] archivos = directorio.listFiles();
+		if (archivos != null) {
+			for (File archivo : archivos) {
+				archivo.delete();
+			}
+		}
+		directorio.delete();
+	}
+
+	private static void comprobar(boolean condicion, String descripcion) {
+		if (!condicion) {
+			throw new AssertionError(descripcion);
+		}
+	}
+}
@@ -0,0 +1,174 @@
+package local;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+
+/** Pruebas de RegistroIdentidades y de sus tablas de ids. No usan el motor de
+ *  huellas: se ejecutan con el main, sin las librerias nativas. Una falla termina
+ *  con AssertionError */
+public class PruebaRegistroIdentidades {
+
+	public static void main(String[] args) {
+		probarAgregarYResolver();
+		probarIdsDePersona();
+		probarCopiaNoCambia();
+		probarReciclaje();
+		probarAleatorio();
+		System.out.println("PruebaRegistroIdentidades: OK");
+	}
+
+
+	private static void probarAgregarYResolver() {
+		RegistroIdentidades registro = new RegistroIdentidades();
+		int id = registro.agregar("100-Juan", 7);
+		comprobar(registro.id("100-Juan") == id, "id del nombre");
+		comprobar("100-Juan".equals(registro.nombre(id)), "nombre del id");
+		comprobar("Juan".equals(registro.persona(id)), "persona del id");
+		comprobar(registro.marca(id) == 7, "marca del id");
+		comprobar(registro.getCantidad() == 1, "cantidad");
+
+		comprobar(registro.eliminar("100-Juan") == id, "eliminar retorna el id");
+		comprobar(!registro.contiene("100-Juan"), "eliminado");
+		comprobar(registro.nombre(id) == null && registro.persona(id) == null, "id sin nombre");
+		comprobar(registro.eliminar("100-Juan") == -1, "eliminar dos veces");
+		comprobar(registro.getCantidad() == 0, "cantidad al eliminar");
+	}
+
+	private static void probarIdsDePersona() {
+		RegistroIdentidades registro = new RegistroIdentidades();
+		int a = registro.agregar("1-Ana", 0);
+		int b = registro.agregar("2-Ana", 0);
+		int c = registro.agregar("3-Ana", 0);
+		registro.agregar("4-Luis", 0);
+
+		comprobar(Arrays.equals(ordenados(registro.idsDePersona("Ana")), ordenados(new int[] {a, b, c})),
+				"ids de la persona");
+		registro.eliminar("2-Ana");
+		comprobar(Arrays.equals(ordenados(registro.idsDePersona("Ana")), ordenados(new int[] {a, c})),
+				"ids al quitar uno del medio");
+		registro.eliminar("1-Ana");
+		registro.eliminar("3-Ana");
+		comprobar(registro.idsDePersona("Ana") == null, "persona sin huellas");
+	}
+
+	/** Una copia sigue igual aunque despues se modifiquen los bloques que comparte */
+	private static void probarCopiaNoCambia() {
+		RegistroIdentidades registro = new RegistroIdentidades();
+		for (int i = 0; i < 3000; i++) {
+			registro.agregar(i + "-P" + i, i);
+		}
+		RegistroIdentidades.Copia copia = registro.copia();
+		registro.eliminar("10-P10");
+		registro.eliminar("2500-P2500");
+		int nuevo = registro.agregar("5000-Nueva", 5000);
+
+		comprobar("10-P10".equals(copia.nombre(10)) && copia.marca(10) == 10, "copia tras eliminar");
+		comprobar("P2500".equals(copia.persona(2500)), "copia tras eliminar en otro bloque");
+		comprobar(copia.nombre(nuevo) == null, "la copia no ve lo agregado despues");
+		comprobar(registro.nombre(10) == null, "el registro si cambia");
+	}
+
+	/** Un id liberado solo se vuelve a asignar despues de reciclarlo */
+	private static void probarReciclaje() {
+		RegistroIdentidades registro = new RegistroIdentidades();
+		int id = registro.agregar("1-Ana", 0);
+		registro.eliminar("1-Ana");
+		int otro = registro.agregar("2-Luis", 0);
+		comprobar(otro != id, "un id liberado no se reusa antes de reciclarlo");
+
+		int[] liberados = registro.tomarLiberados();
+		comprobar(Arrays.equals(liberados, new int[] {id}), "ids liberados");
+		comprobar(registro.tomarLiberados().length == 0, "tomarLiberados los entrega una sola vez");
+		registro.reciclar(id);
+		comprobar(registro.agregar("3-Eva", 0) == id, "el id reciclado se reusa");
+		comprobar("Eva".equals(registro.persona(id)), "el id reusado tiene la persona nueva");
+		comprobar(registro.getSiguienteId() == 2, "no crece al reusar");
+	}
+
+	/** Altas, bajas y reciclajes al azar comparados con colecciones del JDK, incluido el
+	 *  listado por paginas con y sin prefijo */
+	private static void probarAleatorio() {
+		Random azar = new Random(7);
+		RegistroIdentidades registro = new RegistroIdentidades();
+		TreeMap<String, String> orden = new TreeMap<String, String>();
+		HashMap<String, Long> marcas = new HashMap<String, Long>();
+		int maximo = 0;
+
+		for (int paso = 0; paso < 100000; paso++) {
+			String persona = "P" + azar.nextInt(300);
+			String nombre = azar.nextInt(1000) + "-" + persona;
+			int operacion = azar.nextInt(10);
+			// Primero crece y despues se vacia, para que los tramos se partan y se junten
+			if (operacion < (paso < 50000 ? 6 : 2)) {
+				if (!registro.contiene(nombre)) {
+					registro.agregar(nombre, paso);
+					orden.put(persona + '\u0000' + nombre, nombre);
+					marcas.put(nombre, (long) paso);
+				}
+			}
+			else if (operacion < 9) {
+				if (registro.eliminar(nombre) >= 0) {
+					orden.remove(persona + '\u0000' + nombre);
+					marcas.remove(nombre);
+				}
+			}
+			else {
+				for (int id : registro.tomarLiberados()) {
+					registro.reciclar(id);
+				}
+			}
+
+			maximo = Math.max(maximo, registro.getCantidad());
+
+			if (paso % 10000 == 0) {
+				comprobarListado(registro, orden, "", azar);
+				comprobarListado(registro, orden, "P1", azar);
+			}
+		}
+
+		comprobar(registro.getCantidad() == marcas.size(), "cantidad final");
+		for (Map.Entry<String, Long> entrada : marcas.entrySet()) {
+			int id = registro.id(entrada.getKey());
+			comprobar(entrada.getKey().equals(registro.nombre(id)), "nombre de " + entrada.getKey());
+			comprobar(registro.marca(id) == entrada.getValue(), "marca de " + entrada.getKey());
+		}
+		// Solo quedan sin reusar los liberados desde el ultimo reciclaje
+		comprobar(registro.getSiguienteId() <= maximo + 100, "los ids reciclados se reusan");
+	}
+
+	private static void comprobarListado(RegistroIdentidades registro, TreeMap<String, String> orden,
+			String prefijo, Random azar) {
+		ArrayList<String> esperado = new ArrayList<String>();
+		for (Map.Entry<String, String> entrada : orden.entrySet()) {
+			if (entrada.getKey().startsWith(prefijo)) {
+				esperado.add(entrada.getValue());
+			}
+		}
+		ArrayList<String> listado = new ArrayList<String>();
+		String cursor = null;
+		do {
+			PaginaHuellas pagina = registro.listar(cursor, 1 + azar.nextInt(700), prefijo);
+			listado.addAll(pagina.getNombres());
+			cursor = pagina.getCursor();
+		} while (cursor != null);
+		comprobar(esperado.equals(listado), "listado con prefijo '" + prefijo + "'");
+	}
+
+
+	private static int[] ordenados(int[] ids) {
+		int[] copia = ids.clone();
+		Arrays.sort(copia);
+		return copia;
+	}
+
+	private static void comprobar(boolean condicion, String descripcion) {
+		if (!condicion) {
+			throw new AssertionError(descripcion);
+		}
+	}
+}
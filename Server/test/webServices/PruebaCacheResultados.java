@@ -0,0 +1,64 @@
+package webServices;
+
+
+/** Pruebas de CacheResultados: aciertos, invalidacion por version, vencimiento y
+ *  desalojo LRU. Una falla termina con AssertionError */
+public class PruebaCacheResultados {
+
+	public static void main(String[] args) throws Exception {
+		probarAcierto();
+		probarVersion();
+		probarVencimiento();
+		probarCapacidad();
+		System.out.println("PruebaCacheResultados: OK");
+	}
+
+
+	private static void probarAcierto() {
+		CacheResultados<String> cache = new CacheResultados<String>(10, 60000);
+		comprobar(cache.obtener("a", 1) == null, "vacia");
+		cache.guardar("a", "Ana", 1);
+		cache.guardar("b", null, 1);
+		comprobar("Ana".equals(cache.obtener("a", 1).getValor()), "acierto");
+		CacheResultados.Entrada<String> sinCoincidencia = cache.obtener("b", 1);
+		comprobar(sinCoincidencia != null && sinCoincidencia.getValor() == null, "se guarda que no hubo coincidencia");
+		comprobar(cache.getAciertos() == 2 && cache.getFallos() == 1, "cuentas");
+	}
+
+	/** Un cambio de la galeria invalida todo; un resultado de una version anterior no se guarda */
+	private static void probarVersion() {
+		CacheResultados<String> cache = new CacheResultados<String>(10, 60000);
+		cache.guardar("a", "Ana", 1);
+		comprobar(cache.obtener("a", 2) == null, "otra version no acierta");
+		cache.guardar("a", "Ana", 1);
+		comprobar(cache.obtener("a", 2) == null, "no se guarda con una version anterior");
+		cache.guardar("a", "Eva", 3);
+		comprobar("Eva".equals(cache.obtener("a", 3).getValor()), "una version nueva reemplaza");
+		comprobar(cache.obtener("a", 2) == null, "volver a una version anterior tampoco acierta");
+	}
+
+	private static void probarVencimiento() throws InterruptedException {
+		CacheResultados<String> cache = new CacheResultados<String>(10, 20);
+		cache.guardar("a", "Ana", 1);
+		Thread.sleep(50);
+		comprobar(cache.obtener("a", 1) == null, "vencido");
+	}
+
+	/** Con la capacidad llena se desaloja el menos usado */
+	private static void probarCapacidad() {
+		CacheResultados<String> cache = new CacheResultados<String>(2, 60000);
+		cache.guardar("a", "Ana", 1);
+		cache.guardar("b", "Beto", 1);
+		cache.obtener("a", 1);
+		cache.guardar("c", "Carla", 1);
+		comprobar(cache.obtener("b", 1) == null, "se desaloja el menos usado");
+		comprobar(cache.obtener("a", 1) != null && cache.obtener("c", 1) != null, "quedan los usados");
+	}
+
+
+	private static void comprobar(boolean condicion, String descripcion) {
+		if (!condicion) {
+			throw new AssertionError(descripcion);
+		}
+	}
+}
@@ -0,0 +1,133 @@
+package webServices;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+
+/** Pruebas de ControlAdmision: limite, cola, espera maxima y modo adaptativo. Una
+ *  falla termina con AssertionError */
+public class PruebaControlAdmision {
+
+	public static void main(String[] args) throws Exception {
+		probarLimiteSinCola();
+		probarEsperaYAdmision();
+		probarEsperaAgotada();
+		probarColaLlena();
+		probarAdaptativo();
+		System.out.println("PruebaControlAdmision: OK");
+	}
+
+
+	private static void probarLimiteSinCola() throws Exception {
+		ControlAdmision control = new ControlAdmision(2, 0, 1000);
+		long primera = control.entrar();
+		control.entrar();
+		comprobarRechazo(control, "sin cola se rechaza al superar el limite");
+		comprobar(control.getEnCurso() == 2 && control.getRechazadas() == 1, "cuentas con el limite lleno");
+
+		control.salir(primera);
+		control.entrar();
+		comprobar(control.getAdmitidas() == 3, "al salir una se admite otra");
+	}
+
+	/** Una peticion en la cola entra apenas sale una de las que estan en curso */
+	private static void probarEsperaYAdmision() throws Exception {
+		final ControlAdmision control = new ControlAdmision(1, 1, 5000);
+		long primera = control.entrar();
+
+		final AtomicBoolean admitida = new AtomicBoolean();
+		Thread esperando = new Thread() {
+			public void run() {
+				try {
+					control.entrar();
+					admitida.set(true);
+				} catch (Exception e) {
+					// Queda sin admitir
+				}
+			}
+		};
+		esperando.start();
+		esperarHasta(control, 1);
+		comprobar(control.getEnCurso() == 1, "la segunda espera");
+
+		control.salir(primera);
+		esperando.join(5000);
+		comprobar(admitida.get(), "la que esperaba se admite");
+		comprobar(control.getEnCurso() == 1 && control.getEsperando() == 0, "cuentas despues de admitir");
+	}
+
+	private static void probarEsperaAgotada() throws Exception {
+		ControlAdmision control = new ControlAdmision(1, 1, 50);
+		control.entrar();
+		long inicio = System.nanoTime();
+		comprobarRechazo(control, "se rechaza al agotar la espera");
+		comprobar(System.nanoTime() - inicio >= 40 * 1000000L, "espera antes de rechazar");
+		comprobar(control.getEsperando() == 0, "deja de esperar al rechazarse");
+	}
+
+	/** Con la cola llena se rechaza enseguida, sin esperar */
+	private static void probarColaLlena() throws Exception {
+		final ControlAdmision control = new ControlAdmision(1, 1, 5000);
+		long primera = control.entrar();
+		Thread esperando = new Thread() {
+			public void run() {
+				try {
+					control.entrar();
+				} catch (Exception e) {
+					// Se comprueba con las cuentas
+				}
+			}
+		};
+		esperando.start();
+		esperarHasta(control, 1);
+
+		long inicio = System.nanoTime();
+		comprobarRechazo(control, "con la cola llena se rechaza");
+		comprobar(System.nanoTime() - inicio < 1000 * 1000000L, "con la cola llena no espera");
+		control.salir(primera);
+		esperando.join(5000);
+	}
+
+	/** Baja el limite con una peticion lenta y lo sube con 'limite' rapidas seguidas */
+	private static void probarAdaptativo() throws Exception {
+		ControlAdmision control = new ControlAdmision(4, 0, 0);
+		control.setAdaptativo(1000, 8);
+
+		control.entrar();
+		control.salir(System.nanoTime() - 2000 * 1000000L);
+		comprobar(control.getLimite() == 3, "una peticion lenta baja el limite un 10%");
+
+		for (int i = 0; i < 3; i++) {
+			control.salir(control.entrar());
+		}
+		comprobar(control.getLimite() == 4, "'limite' peticiones rapidas lo suben de a uno");
+		for (int i = 0; i < 100; i++) {
+			control.salir(control.entrar());
+		}
+		comprobar(control.getLimite() == 8, "no supera el limite maximo");
+	}
+
+
+	private static void comprobarRechazo(ControlAdmision control, String descripcion) throws Exception {
+		try {
+			control.entrar();
+		} catch (ServidorOcupadoException e) {
+			return;
+		}
+		throw new AssertionError(descripcion);
+	}
+
+	/** Espera a que haya 'cantidad' peticiones en la cola */
+	private static void esperarHasta(ControlAdmision control, int cantidad) throws InterruptedException {
+		long limite = System.nanoTime() + 5000 * 1000000L;
+		while (control.getEsperando() < cantidad && System.nanoTime() < limite) {
+			Thread.sleep(5);
+		}
+		comprobar(control.getEsperando() == cantidad, cantidad + " en la cola");
+	}
+
+	private static void comprobar(boolean condicion, String descripcion) {
+		if (!condicion) {
+			throw new AssertionError(descripcion);
+		}
+	}
+}